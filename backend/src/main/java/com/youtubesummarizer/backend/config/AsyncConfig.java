@@ -0,0 +1,145 @@
+package com.youtubesummarizer.backend.config;
+
+import com.youtubesummarizer.backend.service.PrioritizedTask;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Configuracion de ejecucion asincrona
+ * Los trabajos de resumen corren en su propio pool (o en hilos virtuales), no en los hilos de Tomcat.
+ * Las respuestas asincronas de Spring MVC (descarga de audio en streaming) tienen su propio ejecutor:
+ * al haber un Executor propio, Spring Boot no crea applicationTaskExecutor y MVC usaria
+ * SimpleAsyncTaskExecutor, que abre un hilo nuevo por cada descarga
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Value("${summary.jobs.workers:4}")
+    private int workers;
+
+    @Value("${summary.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Trabajos simultaneos como maximo con hilos virtuales (esperando o en curso)
+    @Value("${summary.jobs.virtual.max-active:5000}")
+    private int maxVirtualJobs;
+
+    @Value("${pipeline.priority.aging-seconds:30}")
+    private long agingSeconds;
+
+    @Value("${mvc.async.workers:32}")
+    private int mvcAsyncWorkers;
+
+    @Value("${mvc.async.queue-capacity:64}")
+    private int mvcAsyncQueueCapacity;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+
+    /**
+     * Ejecutor de las respuestas asincronas de MVC (StreamingResponseBody)
+     * Con hilos virtuales, un hilo virtual por respuesta; si no, un pool acotado que rechaza
+     * cuando la cola se llena
+     */
+    @Bean(name = "mvcAsyncExecutor")
+    public AsyncTaskExecutor mvcAsyncExecutor() {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("mvc-async-");
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mvcAsyncWorkers);
+        executor.setMaxPoolSize(mvcAsyncWorkers);
+        executor.setQueueCapacity(mvcAsyncQueueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Ejecutor de trabajos de resumen
+     * Con hilos virtuales cada trabajo tiene su propio hilo y solo se limita el numero de trabajos;
+     * las llamadas a servicios externos las limita DependencyLimiter
+     */
+    @Bean(name = "summaryJobExecutor")
+    public TaskExecutor summaryJobExecutor() {
+        if (virtualThreads) {
+            return virtualJobExecutor();
+        }
+        return pooledJobExecutor();
+    }
+
+    /**
+     * Un hilo virtual por trabajo; por encima de maxVirtualJobs el envio se rechaza
+     */
+    private TaskExecutor virtualJobExecutor() {
+        VirtualThreadTaskExecutor virtualExecutor = new VirtualThreadTaskExecutor("summary-job-");
+        Semaphore active = new Semaphore(maxVirtualJobs);
+
+        return task -> {
+            if (!active.tryAcquire()) {
+                throw new TaskRejectedException("Limite de trabajos alcanzado (" + maxVirtualJobs + ")");
+            }
+            try {
+                virtualExecutor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        active.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                active.release();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Pool acotado para trabajos de resumen
+     * La cola se ordena por tipo de usuario con envejecimiento (PrioritizedTask), igual que las etapas
+     * del pipeline. Si la cola se llena, el envio se rechaza en lugar de crear hilos sin limite
+     */
+    private ThreadPoolTaskExecutor pooledJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+            @Override
+            protected BlockingQueue<Runnable> createQueue(int capacity) {
+                return new PriorityBlockingQueue<>(capacity, PrioritizedTask.order(agingSeconds));
+            }
+
+            @Override
+            public void execute(Runnable task) {
+                // PriorityBlockingQueue no tiene limite: la capacidad de la cola se comprueba aqui
+                if (getThreadPoolExecutor().getQueue().size() >= queueCapacity) {
+                    throw new TaskRejectedException("Cola de trabajos llena (" + queueCapacity + ")");
+                }
+                super.execute(PrioritizedTask.of(task));
+            }
+        };
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("summary-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
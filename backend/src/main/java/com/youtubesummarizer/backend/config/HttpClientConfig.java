@@ -0,0 +1,173 @@
+package com.youtubesummarizer.backend.config;
+
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cliente HTTP compartido para las llamadas salientes (yt-audio-api y Gemini REST)
+ * Un pool de conexiones con keep-alive evita abrir una conexion (y un handshake TLS) por llamada
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final String GEMINI_HOST = "https://generativelanguage.googleapis.com";
+
+    private static final int MAX_IN_MEMORY_BYTES = 16 * 1024 * 1024;
+
+    @Value("${youtube.audio.api.base-url:http://localhost:5000}")
+    private String audioApiBaseUrl;
+
+    @Value("${http.client.max-total:50}")
+    private int maxTotal;
+
+    @Value("${http.client.max-per-route:10}")
+    private int maxPerRoute;
+
+    @Value("${http.client.audio-api.max-connections:10}")
+    private int audioApiMaxConnections;
+
+    @Value("${http.client.gemini.max-connections:20}")
+    private int geminiMaxConnections;
+
+    @Value("${http.client.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    // Descargas de yt-dlp y transcripciones largas pueden tardar minutos en responder
+    @Value("${http.client.response-timeout-ms:300000}")
+    private long responseTimeoutMs;
+
+    @Value("${http.client.pool-wait-timeout-ms:30000}")
+    private long poolWaitTimeoutMs;
+
+    @Value("${http.client.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    /**
+     * Pool de conexiones con limites globales y por destino
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager outboundConnectionManager() throws URISyntaxException {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        connectionManager.setMaxPerRoute(route(audioApiBaseUrl), audioApiMaxConnections);
+        connectionManager.setMaxPerRoute(route(GEMINI_HOST), geminiMaxConnections);
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(PoolingHttpClientConnectionManager outboundConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(outboundConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolWaitTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setConnectionKeepAlive(TimeValue.ofSeconds(keepAliveSeconds))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .build();
+    }
+
+    /**
+     * RestTemplate comun para YouTubeAudioService y TranscriptionService
+     */
+    @Bean
+    public RestTemplate outboundRestTemplate(CloseableHttpClient outboundHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(outboundHttpClient));
+    }
+
+    /**
+     * WebClient no bloqueante (Reactor Netty) para el pipeline reactivo, con los mismos limites y timeouts
+     */
+    @Bean
+    public WebClient outboundWebClient() {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("outbound")
+                .maxConnections(maxTotal)
+                .pendingAcquireTimeout(Duration.ofMillis(poolWaitTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(keepAliveSeconds))
+                .evictInBackground(Duration.ofSeconds(keepAliveSeconds))
+                .build();
+
+        // HTTP/2 por ALPN donde el servidor lo ofrece (Gemini): muchas peticiones por conexion TLS.
+        // En texto plano (yt-audio-api) se sigue usando HTTP/1.1
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                // Las respuestas de transcripcion pueden superar el limite por defecto de 256 KB
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_BYTES))
+                .build();
+    }
+
+    /**
+     * Estadisticas del pool total y de cada destino (para monitorizacion)
+     */
+    public static Map<String, Object> poolStats(PoolingHttpClientConnectionManager connectionManager) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", toMap(connectionManager.getTotalStats()));
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), toMap(connectionManager.getStats(route)));
+        }
+        stats.put("routes", routes);
+
+        return stats;
+    }
+
+    private static Map<String, Object> toMap(PoolStats poolStats) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("leased", poolStats.getLeased());
+        stats.put("available", poolStats.getAvailable());
+        stats.put("pending", poolStats.getPending());
+        stats.put("max", poolStats.getMax());
+        return stats;
+    }
+
+    private static HttpRoute route(String url) throws URISyntaxException {
+        HttpHost host = HttpHost.create(url.replaceAll("/+$", ""));
+        boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+        // El pool identifica la ruta con el puerto explicito
+        if (host.getPort() < 0) {
+            host = new HttpHost(host.getSchemeName(), host.getHostName(), secure ? 443 : 80);
+        }
+        return new HttpRoute(host, null, secure);
+    }
+}
@@ -0,0 +1,94 @@
+package com.youtubesummarizer.backend.config;
+
+import com.youtubesummarizer.backend.repository.SummaryRepository;
+import com.youtubesummarizer.backend.service.SummaryPersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Migraciones de la tabla summaries al arrancar (ddl-auto=update solo añade columnas)
+ * Cada paso trabaja por lotes y es un no-op cuando ya no queda nada por migrar:
+ *   1. summary_text pasa a NULL (el texto vive ahora en summary_contents)
+ *   2. video_id se rellena a partir de la URL normalizada
+ *   3. el texto de filas antiguas se mueve a contenido compartido
+ *
+ * word_count_range no se puede deducir de las filas anteriores a la columna y queda a NULL:
+ * esas filas siguen en el historial con su propio texto pero no sirven como cache
+ */
+@Component
+public class SummarySchemaMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummarySchemaMigration.class);
+
+    @Autowired
+    private SummaryRepository summaryRepository;
+
+    @Autowired
+    private SummaryPersistenceService summaryPersistenceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${summary.backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            makeSummaryTextNullable();
+            backfillVideoIds();
+            migrateToSharedContent();
+        } catch (Exception e) {
+            logger.error("Error en migracion de summaries: {}", e.getMessage(), e);
+        }
+    }
+
+    private void makeSummaryTextNullable() {
+        List<String> nullable = jdbcTemplate.queryForList(
+                "SELECT IS_NULLABLE FROM information_schema.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'summaries' AND COLUMN_NAME = 'summary_text'",
+                String.class
+        );
+
+        if (!nullable.isEmpty() && "NO".equals(nullable.get(0))) {
+            jdbcTemplate.execute("ALTER TABLE summaries MODIFY summary_text TEXT NULL");
+            logger.info("Columna summaries.summary_text ahora admite NULL");
+        }
+    }
+
+    private void backfillVideoIds() {
+        long total = 0;
+        int updated;
+
+        do {
+            updated = summaryRepository.backfillVideoIds(batchSize);
+            total += updated;
+        } while (updated == batchSize);
+
+        if (total > 0) {
+            logger.info("Backfill de video_id completado: {} resumenes actualizados", total);
+        }
+    }
+
+    private void migrateToSharedContent() {
+        long total = 0;
+        int migrated;
+
+        do {
+            migrated = summaryPersistenceService.migrateLegacyBatch(batchSize);
+            total += migrated;
+        } while (migrated == batchSize);
+
+        if (total > 0) {
+            logger.info("Migracion a contenido compartido completada: {} resumenes", total);
+        }
+    }
+}
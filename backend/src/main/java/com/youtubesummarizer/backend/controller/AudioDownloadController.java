@@ -6,9 +6,10 @@ import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -33,20 +34,35 @@ public class AudioDownloadController {
      * POST /api/audio/download
      * Body: { "videoUrl": "https://www.youtube.com/watch?v=..." }
      *
-     * Retorna el archivo MP3 directamente
+     * Retorna el archivo MP3 en streaming (admite Range para reanudar)
      */
     @PostMapping("/download")
-    public ResponseEntity<Resource> downloadAudio(@RequestBody Map<String, String> request) {
-        try {
-            String videoUrl = request.get("videoUrl");
+    public ResponseEntity<StreamingResponseBody> downloadAudio(
+            @RequestBody Map<String, String> request,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        return streamAudio(request.get("videoUrl"), range);
+    }
 
+    /**
+     * Descarga audio de un video de YouTube (variante GET para reproductores y gestores de descarga)
+     * GET /api/audio/download?videoUrl=https://www.youtube.com/watch?v=...
+     */
+    @GetMapping("/download")
+    public ResponseEntity<StreamingResponseBody> downloadAudioGet(
+            @RequestParam String videoUrl,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        return streamAudio(videoUrl, range);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamAudio(String videoUrl, String range) {
+        try {
             if (videoUrl == null || videoUrl.isEmpty()) {
                 throw new IllegalArgumentException("La URL del video es obligatoria");
             }
 
             logger.info("Solicitando descarga de: {}", videoUrl);
 
-            return audioDownloadService.downloadAudioForUser(videoUrl);
+            return audioDownloadService.downloadAudioForUser(videoUrl, range);
 
         } catch (IllegalArgumentException e) {
             logger.error("Parametros invalidos: {}", e.getMessage());
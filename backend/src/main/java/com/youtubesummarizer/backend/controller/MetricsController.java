@@ -0,0 +1,161 @@
+package com.youtubesummarizer.backend.controller;
+
+import com.youtubesummarizer.backend.config.HttpClientConfig;
+import com.youtubesummarizer.backend.service.AdaptiveLimiter;
+import com.youtubesummarizer.backend.service.AudioStore;
+import com.youtubesummarizer.backend.service.CaptionService;
+import com.youtubesummarizer.backend.service.DependencyLimiter;
+import com.youtubesummarizer.backend.service.GeminiFileCache;
+import com.youtubesummarizer.backend.service.PipelineExecutor;
+import com.youtubesummarizer.backend.service.SingleFlight;
+import com.youtubesummarizer.backend.service.SummaryCache;
+import com.youtubesummarizer.backend.service.TranscriptionService;
+import com.youtubesummarizer.backend.service.VideoMetadataService;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Controller de metricas internas
+ * Endpoints: /api/metrics/*
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class MetricsController {
+
+    @Autowired
+    private PipelineExecutor pipelineExecutor;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private SummaryCache summaryCache;
+
+    @Autowired
+    private TranscriptionService transcriptionService;
+
+    @Autowired
+    private GeminiFileCache geminiFileCache;
+
+    @Autowired
+    private AudioStore audioStore;
+
+    @Autowired
+    private PoolingHttpClientConnectionManager outboundConnectionManager;
+
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    @Autowired
+    private AdaptiveLimiter adaptiveLimiter;
+
+    @Autowired
+    private CaptionService captionService;
+
+    @Autowired
+    private VideoMetadataService videoMetadataService;
+
+    /**
+     * GET /api/metrics/pipeline
+     * Hilos, cola y tiempos de cada etapa del pipeline
+     */
+    @GetMapping("/pipeline")
+    public ResponseEntity<Map<String, Object>> getPipelineStats() {
+        return ResponseEntity.ok(pipelineExecutor.getStats());
+    }
+
+    /**
+     * GET /api/metrics/single-flight
+     * Ejecuciones reales frente a peticiones identicas que se unieron a una en curso
+     */
+    @GetMapping("/single-flight")
+    public ResponseEntity<Map<String, Object>> getSingleFlightStats() {
+        return ResponseEntity.ok(singleFlight.getStats());
+    }
+
+    /**
+     * GET /api/metrics/summary-cache
+     * Tamaño, aciertos, fallos y expulsiones de la cache L1 de resumenes
+     */
+    @GetMapping("/summary-cache")
+    public ResponseEntity<Map<String, Object>> getSummaryCacheStats() {
+        return ResponseEntity.ok(summaryCache.getStats());
+    }
+
+    /**
+     * GET /api/metrics/upload
+     * Bloques subidos, tiempos por bloque y reintentos de la subida resumible a Gemini
+     */
+    @GetMapping("/upload")
+    public ResponseEntity<Map<String, Object>> getUploadStats() {
+        return ResponseEntity.ok(transcriptionService.getUploadStats());
+    }
+
+    /**
+     * GET /api/metrics/gemini-files
+     * Audios reutilizados de la Files API de Gemini frente a subidas nuevas
+     */
+    @GetMapping("/gemini-files")
+    public ResponseEntity<Map<String, Object>> getGeminiFileCacheStats() {
+        return ResponseEntity.ok(geminiFileCache.getStats());
+    }
+
+    /**
+     * GET /api/metrics/audio-store
+     * Audios en disco, bytes usados frente al presupuesto, aciertos y expulsiones
+     */
+    @GetMapping("/audio-store")
+    public ResponseEntity<Map<String, Object>> getAudioStoreStats() {
+        return ResponseEntity.ok(audioStore.getStats());
+    }
+
+    /**
+     * GET /api/metrics/http-pool
+     * Conexiones salientes en uso, libres y en espera, en total y por destino
+     */
+    @GetMapping("/http-pool")
+    public ResponseEntity<Map<String, Object>> getHttpPoolStats() {
+        return ResponseEntity.ok(HttpClientConfig.poolStats(outboundConnectionManager));
+    }
+
+    /**
+     * GET /api/metrics/dependencies
+     * Llamadas en curso y en espera a yt-audio-api y Gemini
+     */
+    @GetMapping("/dependencies")
+    public ResponseEntity<Map<String, Object>> getDependencyStats() {
+        return ResponseEntity.ok(dependencyLimiter.getStats());
+    }
+
+    /**
+     * GET /api/metrics/gemini-limiter
+     * Limite adaptativo y estado del circuito de las llamadas a Gemini
+     */
+    @GetMapping("/gemini-limiter")
+    public ResponseEntity<Map<String, Object>> getGeminiLimiterStats() {
+        return ResponseEntity.ok(adaptiveLimiter.getStats());
+    }
+
+    /**
+     * GET /api/metrics/captions
+     * Transcripciones resueltas con subtitulos frente a las que necesitaron audio
+     */
+    @GetMapping("/captions")
+    public ResponseEntity<Map<String, Object>> getCaptionStats() {
+        return ResponseEntity.ok(captionService.getStats());
+    }
+
+    /**
+     * GET /api/metrics/video-metadata
+     * Cache de datos de video y videos rechazados por duracion
+     */
+    @GetMapping("/video-metadata")
+    public ResponseEntity<Map<String, Object>> getVideoMetadataStats() {
+        return ResponseEntity.ok(videoMetadataService.getStats());
+    }
+}
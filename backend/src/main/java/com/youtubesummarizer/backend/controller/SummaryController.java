@@ -1,15 +1,20 @@
 package com.youtubesummarizer.backend.controller;
 
+import com.youtubesummarizer.backend.dto.SummaryJobResponse;
 import com.youtubesummarizer.backend.dto.SummaryRequest;
 import com.youtubesummarizer.backend.dto.SummaryResponse;
+import com.youtubesummarizer.backend.model.SummaryJob;
 import com.youtubesummarizer.backend.service.RateLimitService;
+import com.youtubesummarizer.backend.service.SummaryJobService;
 import com.youtubesummarizer.backend.service.SummaryService;
 import com.youtubesummarizer.backend.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +38,9 @@ public class SummaryController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SummaryJobService summaryJobService;
+
     /**
      * POST /api/summaries/generate
      * Genera un resumen de un video de YouTube
@@ -49,6 +57,60 @@ public class SummaryController {
         }
     }
 
+    /**
+     * POST /api/summaries/jobs
+     * Encola la generacion de un resumen y devuelve el ID del trabajo inmediatamente
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitSummaryJob(@Valid @RequestBody SummaryRequest request) {
+        try {
+            SummaryJob job = summaryJobService.submit(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(SummaryJobResponse.from(job));
+        } catch (SummaryJobService.JobQueueFullException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    /**
+     * POST /api/summaries/stream
+     * Genera un resumen enviando el texto parcial por Server-Sent Events (text/event-stream)
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamSummary(@Valid @RequestBody SummaryRequest request) {
+        try {
+            SseEmitter emitter = summaryJobService.stream(request);
+            return ResponseEntity.ok(emitter);
+        } catch (SummaryJobService.JobQueueFullException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(error);
+        }
+    }
+
+    /**
+     * GET /api/summaries/jobs/{jobId}
+     * Obtiene la etapa actual y, si ha terminado, el resultado de un trabajo
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getSummaryJob(@PathVariable String jobId) {
+        try {
+            SummaryJob job = summaryJobService.getJob(jobId);
+            return ResponseEntity.ok(SummaryJobResponse.from(job));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
     /**
      * GET /api/summaries/history
      * Obtiene el historial de resúmenes del usuario
@@ -0,0 +1,42 @@
+package com.youtubesummarizer.backend.dto;
+
+import com.youtubesummarizer.backend.model.SummaryJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para el estado de un trabajo de resumen
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SummaryJobResponse {
+
+    private String jobId;
+    private String stage;
+    private boolean finished;
+    private SummaryResponse result;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * Constructor helper para crear respuesta desde un SummaryJob
+     */
+    public static SummaryJobResponse from(SummaryJob job) {
+        return SummaryJobResponse.builder()
+                .jobId(job.getId())
+                .stage(job.getStage().name())
+                .finished(job.getStage().isFinished())
+                .result(job.getResult())
+                .error(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+}
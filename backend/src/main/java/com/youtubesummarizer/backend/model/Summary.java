@@ -39,17 +39,29 @@ public class Summary {
     @Column(name = "video_url", nullable = false, length = 500)
     private String videoUrl;
 
+    // Nullable solo para filas anteriores a la columna (ver SummarySchemaMigration)
+    @Column(name = "video_id", length = 20)
+    private String videoId;
+
     @Column(name = "video_title", columnDefinition = "TEXT")
     private String videoTitle;
 
-    @NotBlank(message = "El texto del resumen es obligatorio")
-    @Column(name = "summary_text", nullable = false, columnDefinition = "TEXT")
+    // Texto compartido con otros usuarios que pidieron el mismo video, idioma y rango
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_id")
+    private SummaryContent content;
+
+    // Solo filas antiguas sin contenido compartido; las nuevas lo dejan a NULL
+    @Column(name = "summary_text", columnDefinition = "TEXT")
     private String summaryText;
 
     @NotBlank(message = "El idioma es obligatorio")
     @Column(nullable = false, length = 10)
     private String language;
 
+    @Column(name = "word_count_range", length = 10)
+    private String wordCountRange;
+
     @Positive(message = "El conteo de palabras debe ser positivo")
     @Column(name = "word_count", nullable = false)
     private Integer wordCount;
@@ -63,18 +75,26 @@ public class Summary {
 
     /**
      * Constructor helper para crear un resumen
+     * Copia los metadatos del contenido; el texto se lee siempre del contenido compartido
      */
-    public static Summary create(User user, String videoUrl, String videoTitle,
-                                 String summaryText, String language,
-                                 Integer wordCount, Integer videoDuration) {
+    public static Summary create(User user, String videoUrl, SummaryContent content, Integer videoDuration) {
         return Summary.builder()
                 .user(user)
                 .videoUrl(videoUrl)
-                .videoTitle(videoTitle)
-                .summaryText(summaryText)
-                .language(language)
-                .wordCount(wordCount)
+                .videoId(content.getVideoId())
+                .videoTitle(content.getVideoTitle())
+                .content(content)
+                .language(content.getLanguage())
+                .wordCountRange(content.getWordCountRange())
+                .wordCount(content.getWordCount())
                 .videoDurationSeconds(videoDuration)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Texto del resumen: el del contenido compartido, o el propio en filas antiguas
+     */
+    public String getSummaryText() {
+        return content != null ? content.getSummaryText() : summaryText;
+    }
+}
@@ -0,0 +1,75 @@
+package com.youtubesummarizer.backend.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad SummaryContent - Texto generado de un resumen, compartido entre usuarios
+ * Un mismo video, idioma y rango de palabras se guarda una sola vez; cada Summary de usuario lo referencia
+ */
+@Entity
+@Table(name = "summary_contents",
+        uniqueConstraints = @UniqueConstraint(
+                name = "unique_content_key",
+                columnNames = {"video_id", "language", "word_count_range"}
+        ))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SummaryContent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "El ID del video es obligatorio")
+    @Column(name = "video_id", nullable = false, length = 20)
+    private String videoId;
+
+    @NotBlank(message = "El idioma es obligatorio")
+    @Column(nullable = false, length = 10)
+    private String language;
+
+    @NotBlank(message = "El rango de palabras es obligatorio")
+    @Column(name = "word_count_range", nullable = false, length = 10)
+    private String wordCountRange;
+
+    @Column(name = "video_title", columnDefinition = "TEXT")
+    private String videoTitle;
+
+    @NotBlank(message = "El texto del resumen es obligatorio")
+    @Column(name = "summary_text", nullable = false, columnDefinition = "TEXT")
+    private String summaryText;
+
+    @Positive(message = "El conteo de palabras debe ser positivo")
+    @Column(name = "word_count", nullable = false)
+    private Integer wordCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructor helper para crear un contenido
+     */
+    public static SummaryContent create(String videoId, String language, String wordCountRange,
+                                        String videoTitle, String summaryText, Integer wordCount) {
+        return SummaryContent.builder()
+                .videoId(videoId)
+                .language(language)
+                .wordCountRange(wordCountRange)
+                .videoTitle(videoTitle)
+                .summaryText(summaryText)
+                .wordCount(wordCount)
+                .build();
+    }
+}
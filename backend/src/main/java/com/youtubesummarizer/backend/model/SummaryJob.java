@@ -0,0 +1,85 @@
+package com.youtubesummarizer.backend.model;
+
+import com.youtubesummarizer.backend.dto.SummaryResponse;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Trabajo asincrono de generacion de resumen
+ * Vive solo en memoria: el resultado final se persiste como Summary
+ */
+@Getter
+public class SummaryJob {
+
+    private final String id;
+    private final Long userId;
+    private final String videoUrl;
+    private final String language;
+    private final String wordCountRange;
+    private final LocalDateTime createdAt;
+
+    private volatile Stage stage;
+    private volatile SummaryResponse result;
+    private volatile String errorMessage;
+    private volatile LocalDateTime updatedAt;
+
+    /**
+     * Etapas del trabajo (en orden)
+     */
+    public enum Stage {
+        QUEUED,
+        DOWNLOADING,
+        TRANSCRIBING,
+        SUMMARIZING,
+        COMPLETED,
+        FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    public SummaryJob(Long userId, String videoUrl, String language, String wordCountRange) {
+        this.id = UUID.randomUUID().toString();
+        this.userId = userId;
+        this.videoUrl = videoUrl;
+        this.language = language;
+        this.wordCountRange = wordCountRange;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+        this.stage = Stage.QUEUED;
+    }
+
+    /**
+     * Avanza a una nueva etapa del pipeline
+     */
+    public void moveTo(Stage stage) {
+        this.stage = stage;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Marca el trabajo como completado con su resultado
+     */
+    public void complete(SummaryResponse result) {
+        this.result = result;
+        moveTo(Stage.COMPLETED);
+    }
+
+    /**
+     * Marca el trabajo como fallido
+     */
+    public void fail(String errorMessage) {
+        this.errorMessage = errorMessage;
+        moveTo(Stage.FAILED);
+    }
+
+    /**
+     * Verifica si el trabajo pertenece a un usuario
+     */
+    public boolean belongsTo(User user) {
+        return userId.equals(user.getId());
+    }
+}
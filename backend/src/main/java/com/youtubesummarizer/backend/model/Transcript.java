@@ -0,0 +1,63 @@
+package com.youtubesummarizer.backend.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad Transcript - Transcripcion de un video de YouTube
+ * Se reutiliza para generar resumenes en otros idiomas o rangos de palabras sin volver a descargar el audio
+ */
+@Entity
+@Table(name = "transcripts",
+        uniqueConstraints = @UniqueConstraint(
+                name = "unique_transcript_video_id",
+                columnNames = {"video_id"}
+        ))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Transcript {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "El ID del video es obligatorio")
+    @Column(name = "video_id", nullable = false, length = 20)
+    private String videoId;
+
+    @NotBlank(message = "El texto de la transcripcion es obligatorio")
+    @Column(name = "transcript_text", nullable = false, columnDefinition = "LONGTEXT")
+    private String transcriptText;
+
+    // Idioma indicado a la IA al transcribir (el audio puede estar en otro)
+    @Column(name = "language_hint", length = 10)
+    private String languageHint;
+
+    @Column(name = "character_count", nullable = false)
+    private Integer characterCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructor helper para crear una transcripcion
+     */
+    public static Transcript create(String videoId, String transcriptText, String languageHint) {
+        return Transcript.builder()
+                .videoId(videoId)
+                .transcriptText(transcriptText)
+                .languageHint(languageHint)
+                .characterCount(transcriptText.length())
+                .build();
+    }
+}
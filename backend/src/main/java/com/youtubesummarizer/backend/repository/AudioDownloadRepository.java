@@ -38,6 +38,15 @@ public interface AudioDownloadRepository extends JpaRepository<AudioDownload, Lo
             "AND a.createdAt >= :startOfDay")
     long countTodaySuccessfulDownloads(Long userId, LocalDateTime startOfDay);
 
+    /**
+     * Indica si el usuario ya tiene hoy una descarga exitosa (cobrada) de este video
+     */
+    @Query("SELECT COUNT(a) > 0 FROM AudioDownload a WHERE a.user.id = :userId " +
+            "AND a.videoId = :videoId " +
+            "AND a.status = 'SUCCESS' " +
+            "AND a.createdAt >= :startOfDay")
+    boolean existsTodaySuccessfulDownload(Long userId, String videoId, LocalDateTime startOfDay);
+
     /**
      * Elimina descargas antiguas (mas de 30 dias)
      */
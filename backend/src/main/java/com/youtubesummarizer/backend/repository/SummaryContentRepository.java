@@ -0,0 +1,25 @@
+package com.youtubesummarizer.backend.repository;
+
+import com.youtubesummarizer.backend.model.SummaryContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository para la entidad SummaryContent
+ */
+@Repository
+public interface SummaryContentRepository extends JpaRepository<SummaryContent, Long> {
+
+    /**
+     * Busca el contenido de un video, idioma y rango de palabras (para caché)
+     * Usa el indice unico unique_content_key
+     * @param videoId ID del video de YouTube
+     * @param language idioma del resumen
+     * @param wordCountRange rango de palabras (ej. "100-200")
+     * @return Optional con el contenido si existe
+     */
+    Optional<SummaryContent> findByVideoIdAndLanguageAndWordCountRange(
+            String videoId, String language, String wordCountRange);
+}
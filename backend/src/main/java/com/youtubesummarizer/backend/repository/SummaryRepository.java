@@ -2,8 +2,14 @@ package com.youtubesummarizer.backend.repository;
 
 import com.youtubesummarizer.backend.model.Summary;
 import com.youtubesummarizer.backend.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,9 +24,11 @@ public interface SummaryRepository extends JpaRepository<Summary, Long> {
 
     /**
      * Obtiene todos los resúmenes de un usuario, ordenados por fecha de creación descendente
+     * Carga el contenido compartido en la misma consulta (el texto se lee de ahi)
      * @param user usuario del que obtener resúmenes
      * @return lista de resúmenes del usuario
      */
+    @EntityGraph(attributePaths = "content")
     List<Summary> findByUserOrderByCreatedAtDesc(User user);
 
     /**
@@ -28,6 +36,7 @@ public interface SummaryRepository extends JpaRepository<Summary, Long> {
      * @param userId ID del usuario
      * @return lista de resúmenes
      */
+    @EntityGraph(attributePaths = "content")
     List<Summary> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     /**
@@ -35,6 +44,7 @@ public interface SummaryRepository extends JpaRepository<Summary, Long> {
      * @param userId ID del usuario
      * @return lista limitada de resúmenes
      */
+    @EntityGraph(attributePaths = "content")
     List<Summary> findTop10ByUserIdOrderByCreatedAtDesc(Long userId);
 
     /**
@@ -61,6 +71,26 @@ public interface SummaryRepository extends JpaRepository<Summary, Long> {
      */
     Optional<Summary> findFirstByVideoUrlAndLanguageOrderByCreatedAtDesc(String videoUrl, String language);
 
+    /**
+     * Obtiene resúmenes antiguos que aun guardan su propio texto y se pueden pasar a contenido compartido
+     * @param pageable tamaño del lote
+     * @return lote de resúmenes sin contenido compartido
+     */
+    List<Summary> findByContentIsNullAndSummaryTextIsNotNullAndWordCountRangeIsNotNull(Pageable pageable);
+
+    /**
+     * Rellena video_id en filas antiguas a partir de la URL normalizada (watch?v=ID)
+     * Actualiza como maximo batchSize filas para no bloquear la tabla
+     * @param batchSize filas por lote
+     * @return número de filas actualizadas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE summaries " +
+            "SET video_id = SUBSTRING_INDEX(SUBSTRING_INDEX(video_url, 'v=', -1), '&', 1) " +
+            "WHERE video_id IS NULL LIMIT :batchSize", nativeQuery = true)
+    int backfillVideoIds(@Param("batchSize") int batchSize);
+
     /**
      * Verifica si existe un resumen para una URL y idioma específicos
      * @param videoUrl URL del video
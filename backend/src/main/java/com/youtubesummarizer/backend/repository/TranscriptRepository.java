@@ -0,0 +1,21 @@
+package com.youtubesummarizer.backend.repository;
+
+import com.youtubesummarizer.backend.model.Transcript;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository para la entidad Transcript
+ */
+@Repository
+public interface TranscriptRepository extends JpaRepository<Transcript, Long> {
+
+    /**
+     * Busca la transcripcion de un video
+     * @param videoId ID del video de YouTube
+     * @return Optional con la transcripcion si existe
+     */
+    Optional<Transcript> findByVideoId(String videoId);
+}
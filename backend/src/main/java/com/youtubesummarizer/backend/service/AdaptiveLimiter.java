@@ -0,0 +1,544 @@
+package com.youtubesummarizer.backend.service;
+
+import com.google.genai.errors.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limite de concurrencia adaptativo (AIMD) con circuito para las llamadas de generacion a Gemini
+ * Cada exito sube el limite poco a poco; un 429/5xx/timeout o una latencia muy por encima de la
+ * habitual lo reduce de golpe. Con fallos seguidos el circuito se abre y las llamadas fallan al
+ * momento hasta que una llamada de prueba confirma que la API se ha recuperado.
+ * DependencyLimiter sigue poniendo el techo fijo; este limite se mueve por debajo de el.
+ * Las llamadas del pipeline reactivo esperan hueco en una cola propia sin bloquear hilos
+ * (callReactive); en ese modo el techo fijo es max-limit.
+ */
+@Component
+public class AdaptiveLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+    // Peso de cada muestra en la media movil de latencia
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${gemini.adaptive.initial-limit:4}")
+    private double initialLimit;
+
+    @Value("${gemini.adaptive.min-limit:1}")
+    private double minLimit;
+
+    @Value("${gemini.adaptive.max-limit:16}")
+    private double maxLimit;
+
+    // Factor por el que se multiplica el limite ante un 429/5xx
+    @Value("${gemini.adaptive.backoff-ratio:0.5}")
+    private double backoffRatio;
+
+    // Una llamada mas lenta que media * tolerancia cuenta como congestion
+    @Value("${gemini.adaptive.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${gemini.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${gemini.circuit.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${pipeline.admission-timeout-seconds:600}")
+    private long admissionTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit = -1;
+    private int inFlight = 0;
+    private int waiting = 0;
+    // Llamadas reactivas esperando hueco, en orden de llegada; se atienden al liberar un permiso
+    private final Deque<ReactiveWaiter> reactiveWaiters = new ArrayDeque<>();
+    // Media de latencia por tipo de llamada y tamaño: una transcripcion tarda mucho mas que un resumen,
+    // y una de 20 MB mucho mas que una de 1 MB
+    private final Map<String, Double> averageLatencyMs = new HashMap<>();
+
+    // Limite que habia al empezar la racha de fallos que abrio el circuito; al cerrarse se vuelve a una fraccion de el
+    private double preOpenLimit = -1;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+
+    private long successes = 0;
+    private long overloads = 0;
+    private long slowCalls = 0;
+    private long rejected = 0;
+
+    /**
+     * Ejecuta la llamada respetando el limite actual y el estado del circuito
+     *
+     * @param operation tipo de llamada (cada uno lleva su propia latencia de referencia)
+     * @param call llamada a Gemini
+     * @return resultado de la llamada
+     */
+    public <T> T call(String operation, Callable<T> call) throws Exception {
+        return call(operation, -1, call);
+    }
+
+    /**
+     * Como call(operation, call), pero la latencia de referencia se separa tambien por tamaño
+     * de la carga (potencias de 2 en MiB), para que un audio largo no cuente como llamada lenta
+     *
+     * @param payloadBytes tamaño del audio enviado, o negativo si no aplica
+     */
+    public <T> T call(String operation, long payloadBytes, Callable<T> call) throws Exception {
+        String latencyKey = latencyKey(operation, payloadBytes);
+        boolean probe = acquire();
+        long start = System.nanoTime();
+
+        try {
+            T result = call.call();
+            onSuccess(probe, latencyKey, elapsedMs(start));
+            return result;
+        } catch (Exception e) {
+            onError(probe, e);
+            throw e;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Variante no bloqueante de call: la espera de hueco no ocupa ningun hilo y el permiso se
+     * libera al terminar, fallar o cancelarse la llamada
+     *
+     * @param payloadBytes tamaño del audio enviado, o negativo si no aplica
+     * @param call construye el Mono de la llamada a Gemini una vez concedido el permiso
+     */
+    public <T> Mono<T> callReactive(String operation, long payloadBytes, Supplier<Mono<T>> call) {
+        String latencyKey = latencyKey(operation, payloadBytes);
+
+        return Mono.usingWhen(
+                acquireReactive(),
+                probe -> {
+                    long start = System.nanoTime();
+                    return call.get()
+                            .doOnSuccess(result -> onSuccess(probe, latencyKey, elapsedMs(start)))
+                            .doOnError(e -> onError(probe, e));
+                },
+                probe -> Mono.fromRunnable(this::release),
+                (probe, e) -> Mono.fromRunnable(this::release),
+                probe -> Mono.fromRunnable(() -> {
+                    abandonProbe(probe);
+                    release();
+                })
+        );
+    }
+
+    private static String latencyKey(String operation, long payloadBytes) {
+        return payloadBytes < 0 ? operation : operation + "/" + sizeClass(payloadBytes);
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static String sizeClass(long bytes) {
+        long mebibytes = bytes >> 20;
+        if (mebibytes == 0) {
+            return "<1MiB";
+        }
+        return "<" + (1L << (64 - Long.numberOfLeadingZeros(mebibytes))) + "MiB";
+    }
+
+    /**
+     * Espera hueco; devuelve true si la llamada es la prueba de un circuito semiabierto
+     */
+    private boolean acquire() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(admissionTimeoutSeconds);
+
+        lock.lock();
+        try {
+            waiting++;
+            try {
+                while (true) {
+                    Boolean probe = tryAcquire();
+                    if (probe != null) {
+                        return probe;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        rejected++;
+                        throw saturated();
+                    }
+                    permitReleased.awaitNanos(remaining);
+                }
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Como acquire, pero sin bloquear: si no hay hueco la llamada queda en la cola reactiva
+     * hasta que release le conceda un permiso, se abra el circuito o venza el tiempo de admision
+     */
+    private Mono<Boolean> acquireReactive() {
+        return Mono.<Boolean>create(sink -> {
+                    ReactiveWaiter waiter = new ReactiveWaiter(sink);
+                    Boolean probe;
+
+                    lock.lock();
+                    try {
+                        probe = tryAcquire();
+                        if (probe == null) {
+                            reactiveWaiters.addLast(waiter);
+                            waiting++;
+                        } else {
+                            waiter.done = true;
+                        }
+                    } catch (CircuitOpenException e) {
+                        sink.error(e);
+                        return;
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (probe != null) {
+                        sink.success(probe);
+                        return;
+                    }
+
+                    waiter.timeout = Schedulers.parallel().schedule(() -> expire(waiter, true),
+                            admissionTimeoutSeconds, TimeUnit.SECONDS);
+                    sink.onCancel(() -> expire(waiter, false));
+                })
+                // Permiso concedido a una espera cancelada justo antes de entregarlo
+                .doOnDiscard(Boolean.class, probe -> {
+                    abandonProbe(probe);
+                    release();
+                });
+    }
+
+    /**
+     * Con el lock: reserva un permiso si el limite y el circuito lo permiten
+     *
+     * @return true si es la llamada de prueba, false si es una llamada normal, o null si hay que esperar
+     * @throws CircuitOpenException si el circuito esta abierto
+     */
+    private Boolean tryAcquire() {
+        if (limit < 0) {
+            limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        }
+
+        if (state == CircuitState.OPEN
+                && System.currentTimeMillis() - openedAt >= TimeUnit.SECONDS.toMillis(openSeconds)) {
+            state = CircuitState.HALF_OPEN;
+            logger.info("Circuito de Gemini semiabierto, probando con una llamada");
+        }
+
+        if (state == CircuitState.OPEN) {
+            rejected++;
+            throw new CircuitOpenException(
+                    "Servicio de IA no disponible temporalmente (demasiados errores seguidos)");
+        }
+
+        if (state == CircuitState.HALF_OPEN) {
+            if (!probeInFlight) {
+                probeInFlight = true;
+                inFlight++;
+                return true;
+            }
+        } else if (inFlight < (int) limit) {
+            inFlight++;
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * Saca de la cola una espera reactiva que vencio o se cancelo antes de tener permiso;
+     * solo la que vencio cuenta como rechazada
+     */
+    private void expire(ReactiveWaiter waiter, boolean timedOut) {
+        lock.lock();
+        try {
+            if (waiter.done) {
+                return;
+            }
+            waiter.done = true;
+            reactiveWaiters.remove(waiter);
+            waiting--;
+            if (timedOut) {
+                rejected++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (timedOut) {
+            waiter.fail(saturated());
+        }
+    }
+
+    /**
+     * Una prueba cancelada no dice nada de la API: se deja que otra llamada haga la prueba
+     */
+    private void abandonProbe(boolean probe) {
+        if (!probe) {
+            return;
+        }
+        lock.lock();
+        try {
+            probeInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static PipelineExecutor.PipelineSaturatedException saturated() {
+        return new PipelineExecutor.PipelineSaturatedException(
+                "El servidor esta muy ocupado. Intenta de nuevo en unos minutos."
+        );
+    }
+
+    private void release() {
+        List<Runnable> completions = new ArrayList<>();
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signalAll();
+            serveReactiveWaiters(completions);
+        } finally {
+            lock.unlock();
+        }
+        // Los suscriptores se avisan fuera del lock
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * Con el lock: concede los permisos libres a las esperas reactivas en orden de llegada,
+     * o las rechaza todas si el circuito se ha abierto
+     */
+    private void serveReactiveWaiters(List<Runnable> completions) {
+        while (!reactiveWaiters.isEmpty()) {
+            Boolean probe;
+            try {
+                probe = tryAcquire();
+            } catch (CircuitOpenException e) {
+                // tryAcquire ya conto el primer rechazo
+                rejected += reactiveWaiters.size() - 1;
+                for (ReactiveWaiter waiter : reactiveWaiters) {
+                    waiter.done = true;
+                    waiting--;
+                    completions.add(() -> waiter.fail(e));
+                }
+                reactiveWaiters.clear();
+                return;
+            }
+            if (probe == null) {
+                return;
+            }
+
+            ReactiveWaiter waiter = reactiveWaiters.pollFirst();
+            waiter.done = true;
+            waiting--;
+            completions.add(() -> waiter.grant(probe));
+        }
+    }
+
+    private void onSuccess(boolean probe, String operation, long latencyMs) {
+        lock.lock();
+        try {
+            successes++;
+            consecutiveFailures = 0;
+
+            if (probe) {
+                close();
+            }
+
+            Double average = averageLatencyMs.get(operation);
+            boolean slow = average != null && latencyMs > average * latencyTolerance;
+            averageLatencyMs.put(operation, average == null
+                    ? latencyMs
+                    : average + LATENCY_SMOOTHING * (latencyMs - average));
+
+            if (slow) {
+                // La latencia crece antes que los 429: se reduce con suavidad
+                slowCalls++;
+                limit = Math.max(minLimit, limit * 0.9);
+            } else if (inFlight >= limit - 1) {
+                // Solo se sube cuando el limite se esta usando; +1 por cada ventana de llamadas
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onError(boolean probe, Throwable e) {
+        lock.lock();
+        try {
+            if (!isOverload(e)) {
+                // La API respondio: un error propio de la peticion no indica sobrecarga
+                if (probe) {
+                    close();
+                }
+                return;
+            }
+
+            overloads++;
+            if (state == CircuitState.CLOSED && consecutiveFailures == 0) {
+                // Limite al empezar la racha de fallos, antes de que cada fallo lo vaya reduciendo;
+                // si la racha acaba abriendo el circuito, es el que se toma como referencia al cerrarlo
+                preOpenLimit = limit;
+            }
+            consecutiveFailures++;
+            limit = Math.max(minLimit, limit * backoffRatio);
+
+            if (probe) {
+                probeInFlight = false;
+                open("la llamada de prueba fallo");
+            } else if (state == CircuitState.CLOSED && consecutiveFailures >= failureThreshold) {
+                open(consecutiveFailures + " errores seguidos");
+            } else {
+                logger.warn("Gemini sobrecargado ({}), limite reducido a {}", e.getMessage(), (int) limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void close() {
+        probeInFlight = false;
+        consecutiveFailures = 0;
+        state = CircuitState.CLOSED;
+        // Se vuelve a la mitad (backoffRatio) de lo que habia antes del corte, no al minimo:
+        // el AIMD tardaria cientos de llamadas en recuperar el limite desde 1
+        limit = Math.max(minLimit, Math.min(maxLimit, preOpenLimit * backoffRatio));
+        logger.info("Circuito de Gemini cerrado tras una llamada de prueba correcta, limite {}", (int) limit);
+    }
+
+    private void open(String reason) {
+        state = CircuitState.OPEN;
+        openedAt = System.currentTimeMillis();
+        permitReleased.signalAll();
+        logger.warn("Circuito de Gemini abierto durante {} s: {}", openSeconds, reason);
+    }
+
+    /**
+     * 429, 5xx y timeouts indican que la API esta saturada; el resto de errores no cambia el limite
+     */
+    private static boolean isOverload(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusCodeException httpError) {
+                return isOverloadStatus(httpError.getStatusCode().value());
+            }
+            if (t instanceof ApiException apiError) {
+                return isOverloadStatus(apiError.code());
+            }
+            if (t instanceof WebClientResponseException webClientError) {
+                return isOverloadStatus(webClientError.getStatusCode().value());
+            }
+            if (t instanceof ResourceAccessException || t instanceof WebClientRequestException
+                    || t instanceof SocketTimeoutException || t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOverloadStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /**
+     * Estado del limite y del circuito (para monitorizacion)
+     */
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("circuit", state.name());
+            stats.put("limit", limit < 0 ? initialLimit : Math.round(limit * 100) / 100.0);
+            stats.put("inFlight", inFlight);
+            stats.put("waiting", waiting);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            averageLatencyMs.forEach((operation, average) -> latency.put(operation, Math.round(average)));
+            stats.put("averageLatencyMs", latency);
+            stats.put("successes", successes);
+            stats.put("overloads", overloads);
+            stats.put("slowCalls", slowCalls);
+            stats.put("rejected", rejected);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamada reactiva esperando permiso; done se cambia con el lock para que el permiso
+     * se conceda, venza o se cancele una sola vez
+     */
+    private static class ReactiveWaiter {
+        private final MonoSink<Boolean> sink;
+        private boolean done = false;
+        private Disposable timeout;
+
+        ReactiveWaiter(MonoSink<Boolean> sink) {
+            this.sink = sink;
+        }
+
+        void grant(boolean probe) {
+            cancelTimeout();
+            sink.success(probe);
+        }
+
+        void fail(Throwable error) {
+            cancelTimeout();
+            sink.error(error);
+        }
+
+        private void cancelTimeout() {
+            if (timeout != null) {
+                timeout.dispose();
+            }
+        }
+    }
+
+    /**
+     * El circuito esta abierto y la llamada no se intenta
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+}
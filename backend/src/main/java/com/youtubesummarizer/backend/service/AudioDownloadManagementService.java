@@ -7,19 +7,24 @@ import com.youtubesummarizer.backend.repository.AudioDownloadRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -33,9 +38,21 @@ public class AudioDownloadManagementService {
     @Autowired
     private AudioDownloadRepository audioDownloadRepository;
 
+    @Autowired
+    private AudioDownloadPersistenceService audioDownloadPersistenceService;
+
     @Autowired
     private YouTubeAudioService youtubeAudioService;
 
+    @Autowired
+    private AudioStore audioStore;
+
+    @Autowired
+    private PipelineExecutor pipelineExecutor;
+
+    @Autowired
+    private VideoMetadataService videoMetadataService;
+
     @Autowired
     private UserService userService;
 
@@ -43,61 +60,115 @@ public class AudioDownloadManagementService {
     private RateLimitService rateLimitService;
 
     /**
-     * Descarga audio y lo sirve al usuario
-     * Tambien guarda el registro en BD
+     * Descarga audio y lo sirve al usuario en streaming desde el archivo
+     * Admite la cabecera Range (un rango, respuesta 206) para reanudar o avanzar en el audio.
+     * Cada video cuenta una vez al dia por usuario: la peticion que empieza en el byte 0 se guarda
+     * en BD y se cobra; las siguientes del mismo video (reanudaciones) no cuentan. Un rango que no
+     * empieza en 0 sin descarga previa se rechaza, para que no sirva para saltarse la cuota.
+     * No es transaccional: solo el guardado y el cobro abren una transaccion corta.
+     *
+     * @param videoUrl URL del video
+     * @param rangeHeader cabecera Range de la peticion (null si no viene)
      */
-    @Transactional
-    public ResponseEntity<Resource> downloadAudioForUser(String videoUrl) {
+    public ResponseEntity<StreamingResponseBody> downloadAudioForUser(String videoUrl, String rangeHeader) {
         User user = userService.getCurrentUser();
-        Path audioFile = null;
+        AudioStore.Lease audio = null;
 
+        List<HttpRange> ranges;
         try {
-            logger.info("Usuario {} solicita descarga de audio: {}", user.getUsername(), videoUrl);
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+        }
+        // Varios rangos no se admiten: se sirve el archivo completo
+        HttpRange range = ranges.size() == 1 ? ranges.get(0) : null;
 
-            // Verificar limite de descargas diarias (usar mismo limite que resumenes)
-            if (!rateLimitService.canMakeRequest(user)) {
-                throw new RuntimeException(
-                        "Has alcanzado el limite de descargas diarias (" + user.getDailyLimit() + ")"
-                );
-            }
+        try {
+            logger.info("Usuario {} solicita descarga de audio: {}", user.getUsername(), videoUrl);
 
             // Extraer video ID
             String videoId = extractVideoId(videoUrl);
 
-            // Descargar audio
+            // Las reanudaciones de una descarga ya cobrada hoy no vuelven a pasar por la cuota
+            boolean charged = !"unknown".equals(videoId)
+                    && audioDownloadPersistenceService.isChargedToday(user, videoId);
+
+            if (!charged) {
+                if (resumesDownload(range)) {
+                    throw new RuntimeException(
+                            "Para reanudar una descarga primero hay que iniciarla desde el principio"
+                    );
+                }
+
+                // Verificar limite de descargas diarias (usar mismo limite que resumenes)
+                if (!rateLimitService.canMakeRequest(user)) {
+                    throw new RuntimeException(
+                            "Has alcanzado el limite de descargas diarias (" + user.getDailyLimit() + ")"
+                    );
+                }
+            }
+
+            // Comprobar la duracion del video con el plan del usuario, antes de descargar nada
+            Optional<VideoMetadataService.VideoMetadata> metadata = "unknown".equals(videoId)
+                    ? Optional.empty()
+                    : videoMetadataService.checkDuration(user, videoId, videoUrl);
+
+            // Obtener audio (del almacen local si se descargo hace poco)
             long startTime = System.currentTimeMillis();
-            audioFile = youtubeAudioService.downloadAudio(videoUrl);
+            // La descarga pasa por la etapa de descarga del pipeline, con la prioridad del usuario
+            audio = pipelineExecutor.execute(PipelineExecutor.Stage.DOWNLOAD, user.getUserType(), () ->
+                    "unknown".equals(videoId)
+                            ? audioStore.temporary(youtubeAudioService.downloadAudio(videoUrl))
+                            : audioStore.acquire(videoId, () -> youtubeAudioService.downloadAudio(videoUrl))
+            );
             long downloadTime = System.currentTimeMillis() - startTime;
 
-            // Leer archivo
-            byte[] audioData = Files.readAllBytes(audioFile);
-            long fileSize = audioData.length;
-
-            // Guardar registro en BD
-            AudioDownload download = AudioDownload.createSuccess(
-                    user,
-                    videoUrl,
-                    videoId,
-                    "Video de YouTube - " + videoId,
-                    fileSize,
-                    downloadTime
-            );
-            audioDownloadRepository.save(download);
+            long fileSize = Files.size(audio.getPath());
+            long start = 0;
+            long end = fileSize - 1;
+
+            if (range != null) {
+                start = range.getRangeStart(fileSize);
+                end = range.getRangeEnd(fileSize);
+                if (start >= fileSize) {
+                    audio.close();
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+                            .build();
+                }
+            }
 
-            // Incrementar contador de uso
-            rateLimitService.incrementUsage(user);
+            if (!charged) {
+                // Guardar registro en BD e incrementar contador de uso
+                AudioDownload download = AudioDownload.createSuccess(
+                        user,
+                        videoUrl,
+                        videoId,
+                        metadata.map(VideoMetadataService.VideoMetadata::title).orElse("Video de YouTube - " + videoId),
+                        fileSize,
+                        downloadTime
+                );
+                audioDownloadPersistenceService.saveAndChargeUsage(user, download);
+
+                logger.info("Descarga exitosa: {} bytes en {} ms", fileSize, downloadTime);
+            }
 
-            logger.info("Descarga exitosa: {} bytes en {} ms", fileSize, downloadTime);
+            // El cuerpo se copia del archivo a la respuesta; el audio se libera al terminar
+            StreamingResponseBody body = streamRange(audio, start, end - start + 1);
+            audio = null;
 
-            // Preparar respuesta con el archivo
-            ByteArrayResource resource = new ByteArrayResource(audioData);
+            ResponseEntity.BodyBuilder response = range != null
+                    ? ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize)
+                    : ResponseEntity.ok();
 
-            return ResponseEntity.ok()
+            return response
                     .header(HttpHeaders.CONTENT_DISPOSITION,
                             "attachment; filename=\"youtube_audio_" + videoId + ".mp3\"")
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .contentLength(fileSize)
-                    .body(resource);
+                    .contentLength(end - start + 1)
+                    .body(body);
 
         } catch (Exception e) {
             logger.error("Error en descarga: {}", e.getMessage(), e);
@@ -119,13 +190,36 @@ public class AudioDownloadManagementService {
             throw new RuntimeException("Error al descargar audio: " + e.getMessage());
 
         } finally {
-            // Limpiar archivo temporal
-            if (audioFile != null) {
-                youtubeAudioService.cleanupAudioFile(audioFile);
+            // Si no se llego a entregar el cuerpo, liberar el audio aqui
+            if (audio != null) {
+                audio.close();
             }
         }
     }
 
+    /**
+     * Un rango que no empieza en el byte 0 (incluido el sufijo "bytes=-N") continua una descarga anterior
+     */
+    private boolean resumesDownload(HttpRange range) {
+        return range != null && range.getRangeStart(Long.MAX_VALUE) > 0;
+    }
+
+    /**
+     * Copia [start, start + length) del audio a la respuesta con FileChannel.transferTo
+     * El lease se mantiene hasta terminar, para que el almacen no borre el archivo a mitad de envio
+     */
+    private StreamingResponseBody streamRange(AudioStore.Lease audio, long start, long length) {
+        return outputStream -> {
+            try (audio; FileChannel channel = FileChannel.open(audio.getPath(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long sent = 0;
+                while (sent < length) {
+                    sent += channel.transferTo(start + sent, length - sent, target);
+                }
+            }
+        };
+    }
+
     /**
      * Obtiene el historial de descargas del usuario
      */
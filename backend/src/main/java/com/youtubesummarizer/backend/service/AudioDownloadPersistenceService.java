@@ -0,0 +1,54 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.AudioDownload;
+import com.youtubesummarizer.backend.model.User;
+import com.youtubesummarizer.backend.repository.AudioDownloadRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Servicio de persistencia de descargas de audio
+ * Guarda el registro y cobra la cuota en una transaccion corta, para que la descarga con yt-dlp
+ * y el envio del archivo corran sin conexion JDBC abierta
+ */
+@Service
+public class AudioDownloadPersistenceService {
+
+    @Autowired
+    private AudioDownloadRepository audioDownloadRepository;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    /**
+     * Indica si la descarga de este video ya se cobro hoy al usuario
+     * Las peticiones Range que reanudan esa descarga no vuelven a contar
+     */
+    @Transactional(readOnly = true)
+    public boolean isChargedToday(User user, String videoId) {
+        return audioDownloadRepository.existsTodaySuccessfulDownload(
+                user.getId(), videoId, LocalDate.now().atStartOfDay());
+    }
+
+    /**
+     * Guarda la descarga del usuario e incrementa su uso diario
+     * Vuelve a comprobar el limite: otra peticion pudo consumirlo mientras se descargaba el audio
+     *
+     * @param user usuario que descarga
+     * @param download registro de la descarga
+     */
+    @Transactional
+    public void saveAndChargeUsage(User user, AudioDownload download) {
+        if (!rateLimitService.canMakeRequest(user)) {
+            throw new RuntimeException(
+                    "Has alcanzado el limite de descargas diarias (" + user.getDailyLimit() + ")"
+            );
+        }
+
+        audioDownloadRepository.save(download);
+        rateLimitService.incrementUsage(user);
+    }
+}
@@ -0,0 +1,371 @@
+package com.youtubesummarizer.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Almacen local de audios descargados, por videoId
+ * Evita volver a descargar con yt-dlp un video reciente (descarga de audio + resumen, otro idioma...).
+ * Limita el espacio en disco con un presupuesto de bytes y expulsa por LRU; un archivo en uso
+ * (con lease abierto) nunca se borra.
+ * El indice se protege con un ReentrantLock (no synchronized, que fija el hilo virtual a su portador)
+ * y el acceso a disco se hace siempre fuera de la seccion critica
+ */
+@Component
+public class AudioStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioStore.class);
+
+    // Veces que se intenta compartir la descarga de otro hilo antes de descargar una copia temporal
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Value("${audio.store.max-bytes:1073741824}")
+    private long maxBytes;
+
+    private Path storeDir = Paths.get(System.getProperty("java.io.tmpdir"), "youtube-audio-store");
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // LinkedHashMap en orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<String, StoredAudio> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    /**
+     * Indexa los audios que quedaron en disco de una ejecucion anterior (los mas antiguos primero)
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(storeDir);
+
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(storeDir)) {
+            existing = files
+                    .filter(file -> file.getFileName().toString().endsWith(".mp3"))
+                    .sorted(Comparator.comparingLong(this::lastModified))
+                    .toList();
+        }
+
+        List<StoredAudio> evicted;
+        lock.lock();
+        try {
+            for (Path file : existing) {
+                String name = file.getFileName().toString();
+                if (name.contains("_part")) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                long size = size(file);
+                if (size >= 0) {
+                    register(name.substring(0, name.length() - ".mp3".length()), file, size);
+                }
+            }
+            evicted = evictIfNeeded();
+            logger.info("Almacen de audio: {} archivos, {} bytes (maximo {})", entries.size(), totalBytes, maxBytes);
+        } finally {
+            lock.unlock();
+        }
+        deleteEvicted(evicted);
+    }
+
+    /**
+     * Obtiene el audio de un video, descargandolo solo si no esta en el almacen
+     * Descargas simultaneas del mismo video se unen en una sola; quien descarga recibe el lease
+     * ya registrado junto con el archivo, asi que no puede expulsarse antes de usarlo
+     *
+     * @param videoId ID del video de YouTube
+     * @param downloader descarga el audio a un archivo temporal
+     * @return lease sobre el archivo; cerrarlo cuando ya no se lea
+     */
+    public Lease acquire(String videoId, Supplier<Path> downloader) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Lease lease = tryLease(videoId);
+            if (lease != null) {
+                hits.incrementAndGet();
+                return lease;
+            }
+
+            misses.incrementAndGet();
+            AtomicReference<Lease> own = new AtomicReference<>();
+            singleFlight.execute("audio:" + videoId, () -> {
+                Lease stored = tryLease(videoId);
+                own.set(stored != null ? stored : store(videoId, downloader.get()));
+                return Boolean.TRUE;
+            });
+            if (own.get() != null) {
+                return own.get();
+            }
+
+            // Se unio a la descarga de otro hilo: el archivo sigue registrado mientras este lo use
+            lease = tryLease(videoId);
+            if (lease != null) {
+                return lease;
+            }
+            // No se guardo (mayor que el presupuesto) o ya se libero y expulso: se vuelve a intentar
+            logger.debug("Audio {} no disponible tras la descarga compartida, reintentando ({}/{})",
+                    videoId, attempt, MAX_ATTEMPTS);
+        }
+
+        return temporary(downloader.get());
+    }
+
+    /**
+     * Lease sobre un archivo que no se guarda en el almacen; se borra al cerrarlo
+     */
+    public Lease temporary(Path audioFile) {
+        return new Lease(null, audioFile);
+    }
+
+    /**
+     * Estadisticas del almacen (para monitorizacion)
+     */
+    public Map<String, Object> getStats() {
+        long totalLookups = hits.get() + misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("files", entries.size());
+            stats.put("bytes", totalBytes);
+            stats.put("maxBytes", maxBytes);
+            stats.put("filesInUse", entries.values().stream().filter(entry -> entry.leases > 0).count());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", totalLookups == 0 ? 0.0 : (double) hits.get() / totalLookups);
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private Lease tryLease(String videoId) {
+        StoredAudio entry;
+        lock.lock();
+        try {
+            entry = entries.get(videoId);
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        // Se comprueba fuera del lock; si se expulsa mientras tanto, deja de estar en el indice
+        boolean exists = Files.exists(entry.path);
+
+        lock.lock();
+        try {
+            if (entries.get(videoId) != entry) {
+                return null;
+            }
+            if (!exists) {
+                // Borrado desde fuera del almacen
+                entries.remove(videoId);
+                totalBytes -= entry.size;
+                return null;
+            }
+
+            entry.leases++;
+            return new Lease(videoId, entry.path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mueve el audio descargado al almacen y expulsa los menos usados si se supera el presupuesto
+     * El audio se registra ya con un lease abierto, en la misma seccion critica, para que la
+     * expulsion no lo borre antes de devolverlo; si no cabe en el presupuesto se usa como temporal
+     */
+    private Lease store(String videoId, Path downloaded) {
+        long downloadedSize = size(downloaded);
+        if (downloadedSize > maxBytes) {
+            logger.info("Audio {} ({} bytes) mayor que el almacen ({} bytes), se usa sin guardarlo",
+                    videoId, downloadedSize, maxBytes);
+            return temporary(downloaded);
+        }
+
+        Path target = storeDir.resolve(videoId + ".mp3");
+        try {
+            Files.move(downloaded, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.move(downloaded, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ex) {
+                deleteQuietly(downloaded);
+                throw new YouTubeAudioService.AudioDownloadException("Error al guardar el audio");
+            }
+        }
+
+        long size = size(target);
+        if (size < 0) {
+            throw new YouTubeAudioService.AudioDownloadException("Error al guardar el audio");
+        }
+
+        List<StoredAudio> evicted;
+        lock.lock();
+        try {
+            register(videoId, target, size).leases++;
+            evicted = evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+        deleteEvicted(evicted);
+        return new Lease(videoId, target);
+    }
+
+    private StoredAudio register(String videoId, Path file, long size) {
+        StoredAudio entry = new StoredAudio(file, size);
+        StoredAudio previous = entries.put(videoId, entry);
+        if (previous != null) {
+            totalBytes -= previous.size;
+        }
+        totalBytes += size;
+        return entry;
+    }
+
+    /**
+     * Expulsa del indice por LRU los audios sin lease hasta quedar dentro del presupuesto
+     * Se llama con el lock; los archivos devueltos se borran despues con deleteEvicted, ya sin el
+     */
+    private List<StoredAudio> evictIfNeeded() {
+        List<StoredAudio> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, StoredAudio>> iterator = entries.entrySet().iterator();
+
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, StoredAudio> eldest = iterator.next();
+            StoredAudio entry = eldest.getValue();
+
+            if (entry.leases > 0) {
+                continue;
+            }
+
+            iterator.remove();
+            totalBytes -= entry.size;
+            evictions.incrementAndGet();
+            evicted.add(entry);
+            logger.debug("Audio {} expulsado del almacen ({} bytes)", eldest.getKey(), entry.size);
+        }
+        return evicted;
+    }
+
+    private void deleteEvicted(List<StoredAudio> evicted) {
+        for (StoredAudio entry : evicted) {
+            deleteQuietly(entry.path);
+        }
+    }
+
+    private void release(String videoId, Path path) {
+        List<StoredAudio> evicted;
+        lock.lock();
+        try {
+            StoredAudio entry = entries.get(videoId);
+            if (entry != null && entry.path.equals(path) && entry.leases > 0) {
+                entry.leases--;
+            }
+            evicted = evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+        deleteEvicted(evicted);
+    }
+
+    private long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar audio {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Uso de un audio del almacen; mientras este abierto el archivo no se expulsa
+     */
+    public class Lease implements AutoCloseable {
+        private final String videoId;
+        private final Path path;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Lease(String videoId, Path path) {
+            this.videoId = videoId;
+            this.path = path;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        @Override
+        public void close() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+
+            if (videoId == null) {
+                deleteQuietly(path);
+            } else {
+                release(videoId, path);
+            }
+        }
+    }
+
+    /**
+     * Audio en disco con su tamaño y numero de leases abiertos
+     */
+    private static class StoredAudio {
+        private final Path path;
+        private final long size;
+        private int leases = 0;
+
+        StoredAudio(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.youtubesummarizer.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Obtiene los subtitulos que ya tiene el video (endpoint /captions de yt-audio-api)
+ * Es la primera fuente de transcripcion: si existen, se evitan la descarga del audio y la
+ * transcripcion con Gemini. Cualquier fallo se trata como "sin subtitulos" y se sigue con el audio.
+ */
+@Service
+public class CaptionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaptionService.class);
+
+    private static final String CAPTIONS_PATH = "/captions?url={url}&lang={lang}";
+
+    @Value("${youtube.audio.api.base-url:http://localhost:5000}")
+    private String audioApiBaseUrl;
+
+    @Value("${transcript.captions.enabled:true}")
+    private boolean enabled;
+
+    // Subtitulos mas cortos se descartan (suelen ser solo musica o un aviso)
+    @Value("${transcript.captions.min-chars:200}")
+    private int minChars;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private WebClient outboundWebClient;
+
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong errors = new AtomicLong(0);
+
+    /**
+     * Subtitulos de un video en texto plano
+     *
+     * @param language idioma del subtitulo (codigo de YouTube)
+     * @param automatic true si son subtitulos automaticos de YouTube
+     */
+    public record Caption(String language, boolean automatic, String text) {
+    }
+
+    /**
+     * Busca subtitulos del video
+     *
+     * @param videoUrl URL del video
+     * @param language idioma preferido
+     * @return subtitulos, o vacio si no hay (o no se pudieron obtener)
+     */
+    public Optional<Caption> fetchCaptions(String videoUrl, String language) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        try {
+            String body = dependencyLimiter.call(DependencyLimiter.Dependency.AUDIO_API_PROBE, () ->
+                    restTemplate.getForObject(audioApiBaseUrl + CAPTIONS_PATH, String.class, videoUrl, language)
+            );
+            return accept(videoUrl, parseCaption(body));
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                return accept(videoUrl, Optional.empty());
+            }
+            return failed(videoUrl, e);
+        } catch (PipelineExecutor.PipelineSaturatedException e) {
+            throw e;
+        } catch (Exception e) {
+            return failed(videoUrl, e);
+        }
+    }
+
+    /**
+     * Variante no bloqueante de fetchCaptions; termina vacio si no hay subtitulos
+     */
+    public Mono<Caption> fetchCaptionsReactive(String videoUrl, String language) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+
+        return dependencyLimiter.callReactive(DependencyLimiter.Dependency.AUDIO_API_PROBE, () -> outboundWebClient.get()
+                        .uri(audioApiBaseUrl + CAPTIONS_PATH, videoUrl, language)
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .map(body -> accept(videoUrl, parseCaption(body)))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(accept(videoUrl, Optional.empty())))
+                .onErrorResume(e -> Mono.just(failed(videoUrl, e)))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    private Optional<Caption> parseCaption(String body) {
+        if (body == null || body.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            String text = json.path("text").asText("").trim();
+            if (text.length() < minChars) {
+                return Optional.empty();
+            }
+            return Optional.of(new Caption(json.path("language").asText(""), json.path("automatic").asBoolean(), text));
+        } catch (IOException e) {
+            throw new IllegalStateException("Respuesta de subtitulos no valida", e);
+        }
+    }
+
+    private Optional<Caption> accept(String videoUrl, Optional<Caption> caption) {
+        if (caption.isPresent()) {
+            hits.incrementAndGet();
+            logger.info("Subtitulos {} ({}) encontrados para {}: {} caracteres, se omite el audio",
+                    caption.get().automatic() ? "automaticos" : "manuales",
+                    caption.get().language(), videoUrl, caption.get().text().length());
+        } else {
+            misses.incrementAndGet();
+            logger.info("Sin subtitulos para {}, se transcribe el audio", videoUrl);
+        }
+        return caption;
+    }
+
+    private Optional<Caption> failed(String videoUrl, Throwable e) {
+        errors.incrementAndGet();
+        logger.warn("No se pudieron obtener subtitulos de {}: {}", videoUrl, e.getMessage());
+        return Optional.empty();
+    }
+
+    /**
+     * Videos resueltos con subtitulos frente a los que necesitaron audio (para monitorizacion)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+}
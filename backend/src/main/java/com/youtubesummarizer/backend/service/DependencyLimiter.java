@@ -0,0 +1,133 @@
+package com.youtubesummarizer.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limita las llamadas simultaneas a cada servicio externo
+ * Con hilos virtuales puede haber miles de trabajos esperando; el limite lo ponen estos
+ * semaforos y no el tamaño de un pool de hilos.
+ * El pipeline reactivo pide los mismos permisos sin bloquear (callReactive)
+ */
+@Component
+public class DependencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DependencyLimiter.class);
+
+    /**
+     * Servicios externos con su limite por defecto
+     */
+    public enum Dependency {
+        AUDIO_API("audio-api", 4),
+        // Consultas cortas (/metadata, /captions): no esperan detras de las descargas con yt-dlp
+        AUDIO_API_PROBE("audio-api-probe", 8),
+        GEMINI_UPLOAD("gemini-upload", 8),
+        GEMINI_GENERATE("gemini-generate", 16);
+
+        private final String key;
+        private final int defaultMaxConcurrent;
+
+        Dependency(String key, int defaultMaxConcurrent) {
+            this.key = key;
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+        }
+    }
+
+    private final Environment environment;
+
+    private final Map<Dependency, Semaphore> permits = new EnumMap<>(Dependency.class);
+    private final Map<Dependency, Integer> limits = new EnumMap<>(Dependency.class);
+    private final Map<Dependency, ReactivePermits> reactivePermits = new EnumMap<>(Dependency.class);
+
+    @Value("${pipeline.admission-timeout-seconds:600}")
+    private long admissionTimeoutSeconds;
+
+    public DependencyLimiter(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (Dependency dependency : Dependency.values()) {
+            int maxConcurrent = environment.getProperty(
+                    "dependency." + dependency.key + ".max-concurrent", Integer.class, dependency.defaultMaxConcurrent);
+            Semaphore semaphore = new Semaphore(maxConcurrent, true);
+            permits.put(dependency, semaphore);
+            reactivePermits.put(dependency, new ReactivePermits(semaphore));
+            limits.put(dependency, maxConcurrent);
+            logger.info("Limite de {}: {} llamadas simultaneas", dependency, maxConcurrent);
+        }
+    }
+
+    /**
+     * Ejecuta la llamada cuando hay hueco para el servicio externo
+     *
+     * @param dependency servicio al que se llama
+     * @param call llamada a ejecutar
+     * @return resultado de la llamada
+     */
+    public <T> T call(Dependency dependency, Callable<T> call) throws Exception {
+        Semaphore semaphore = permits.get(dependency);
+
+        if (!semaphore.tryAcquire(admissionTimeoutSeconds, TimeUnit.SECONDS)) {
+            throw saturated();
+        }
+
+        try {
+            return call.call();
+        } finally {
+            // Al liberar tambien se atiende a las llamadas reactivas en cola
+            reactivePermits.get(dependency).release();
+        }
+    }
+
+    /**
+     * Variante no bloqueante de call: la llamada espera permiso en cola sin ocupar un hilo
+     *
+     * @param dependency servicio al que se llama
+     * @param call construye el Mono de la llamada una vez concedido el permiso
+     * @return resultado de la llamada
+     */
+    public <T> Mono<T> callReactive(Dependency dependency, Supplier<Mono<T>> call) {
+        return reactivePermits.get(dependency)
+                .call(Duration.ofSeconds(admissionTimeoutSeconds), DependencyLimiter::saturated, call);
+    }
+
+    private static PipelineExecutor.PipelineSaturatedException saturated() {
+        return new PipelineExecutor.PipelineSaturatedException(
+                "El servidor esta muy ocupado. Intenta de nuevo en unos minutos."
+        );
+    }
+
+    /**
+     * Llamadas en curso y en espera por servicio (para monitorizacion)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Dependency dependency : Dependency.values()) {
+            Semaphore semaphore = permits.get(dependency);
+            int limit = limits.get(dependency);
+
+            Map<String, Object> dependencyStats = new LinkedHashMap<>();
+            dependencyStats.put("maxConcurrent", limit);
+            dependencyStats.put("active", limit - semaphore.availablePermits());
+            dependencyStats.put("waiting", semaphore.getQueueLength() + reactivePermits.get(dependency).waiting());
+            stats.put(dependency.key, dependencyStats);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,125 @@
+package com.youtubesummarizer.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de archivos ya subidos a la Files API de Gemini
+ * Relaciona el SHA-256 del audio con su file_uri, para no volver a subir los mismos bytes
+ * mientras Gemini conserve el archivo
+ */
+@Component
+public class GeminiFileCache {
+
+    // Margen antes de la caducidad real para no usar un archivo a punto de borrarse
+    private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(30);
+
+    private final Duration ttl;
+
+    private final Map<String, CachedFile> files = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
+
+    public GeminiFileCache(@Value("${transcription.file-cache.ttl-hours:47}") long ttlHours) {
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    /**
+     * Calcula el SHA-256 del archivo leyendolo en streaming
+     */
+    public String hash(Path file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Busca el file_uri de un audio ya subido
+     * @param hash SHA-256 del audio
+     * @return Optional con el URI si no ha caducado
+     */
+    public Optional<String> get(String hash) {
+        CachedFile file = files.get(hash);
+
+        if (file == null || file.isExpired()) {
+            if (file != null) {
+                files.remove(hash, file);
+            }
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        hits.incrementAndGet();
+        return Optional.of(file.fileUri());
+    }
+
+    /**
+     * Guarda el file_uri de un audio recien subido
+     * @param expirationTime caducidad informada por Gemini (null si no la envio)
+     */
+    public void put(String hash, String fileUri, Instant expirationTime) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (expirationTime != null && expirationTime.minus(EXPIRY_MARGIN).isBefore(expiresAt)) {
+            expiresAt = expirationTime.minus(EXPIRY_MARGIN);
+        }
+
+        files.put(hash, new CachedFile(fileUri, expiresAt));
+        files.values().removeIf(CachedFile::isExpired);
+    }
+
+    /**
+     * Olvida un archivo que Gemini ya no reconoce (borrado o caducado antes de tiempo)
+     */
+    public void invalidate(String hash) {
+        if (files.remove(hash) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Estadisticas de la cache (para monitorizacion)
+     */
+    public Map<String, Object> getStats() {
+        long totalLookups = hits.get() + misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", files.size());
+        stats.put("ttlHours", ttl.toHours());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", totalLookups == 0 ? 0.0 : (double) hits.get() / totalLookups);
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private record CachedFile(String fileUri, Instant expiresAt) {
+        boolean isExpired() {
+            return Instant.now().isAfter(expiresAt);
+        }
+    }
+}
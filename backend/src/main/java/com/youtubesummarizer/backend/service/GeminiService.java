@@ -1,11 +1,25 @@
 package com.youtubesummarizer.backend.service;
 
 import com.google.genai.Client;
+import com.google.genai.ResponseStream;
 import com.google.genai.types.GenerateContentResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
 /**
  * Servicio para generar resumenes de texto usando Gemini
  */
@@ -14,12 +28,44 @@ public class GeminiService {
 
     private static final Logger logger = LoggerFactory.getLogger(GeminiService.class);
 
+    static final String MODEL = "gemini-3-flash-preview";
+
     private final Client client;
 
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    @Autowired
+    private AdaptiveLimiter adaptiveLimiter;
+
+    // Hilos para resumir en paralelo las partes de transcripciones largas
+    private ExecutorService chunkExecutor;
+
+    @Value("${gemini.summary.chunk-chars:60000}")
+    private int chunkChars;
+
+    @Value("${gemini.summary.max-parallel-chunks:3}")
+    private int maxParallelChunks;
+
     public GeminiService() {
         this.client = new Client();
     }
 
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger(1);
+        chunkExecutor = Executors.newFixedThreadPool(maxParallelChunks, runnable -> {
+            Thread thread = new Thread(runnable, "gemini-chunk-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdownNow();
+    }
+
     /**
      * Genera un resumen de una transcripcion de video
      *
@@ -33,26 +79,14 @@ public class GeminiService {
     public String summarizeTranscription(String transcriptionText, String videoTitle, String language,
                                          int minWords, int maxWords) {
         try {
-            logger.info("Generando resumen de transcripcion");
-            logger.info("Parametros: idioma={}, palabras={}-{}", language, minWords, maxWords);
-            logger.info("Longitud transcripcion: {} caracteres", transcriptionText.length());
-
-            // Limitar longitud de transcripcion si es muy larga
-            String textToSummarize = transcriptionText;
-            int maxChars = 80000;
-
-            if (textToSummarize.length() > maxChars) {
-                logger.warn("Transcripcion muy larga ({}), truncando a {} caracteres",
-                        textToSummarize.length(), maxChars);
-                textToSummarize = textToSummarize.substring(0, maxChars);
-            }
+            String prompt = prepareSummaryPrompt(transcriptionText, videoTitle, language, minWords, maxWords);
 
-            String prompt = buildSummaryPrompt(textToSummarize, videoTitle, language, minWords, maxWords);
-
-            GenerateContentResponse response = client.models.generateContent(
-                    "gemini-3-flash-preview",
-                    prompt,
-                    null
+            GenerateContentResponse response = dependencyLimiter.call(DependencyLimiter.Dependency.GEMINI_GENERATE, () ->
+                    adaptiveLimiter.call("summary", () -> client.models.generateContent(
+                            MODEL,
+                            prompt,
+                            null
+                    ))
             );
 
             String summaryText = response.text();
@@ -67,8 +101,250 @@ public class GeminiService {
 
         } catch (Exception e) {
             logger.error("Error al llamar a Gemini API: {}", e.getMessage(), e);
-            throw new GeminiException("Error al generar resumen con IA: " + e.getMessage());
+            throw new GeminiException("Error al generar resumen con IA: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Genera un resumen en streaming: cada fragmento se entrega en cuanto llega de Gemini
+     *
+     * @param transcriptionText Texto transcrito del video
+     * @param videoTitle Titulo del video (opcional)
+     * @param language Idioma del resumen
+     * @param minWords Minimo de palabras
+     * @param maxWords Maximo de palabras
+     * @param onChunk Recibe cada fragmento de texto parcial
+     * @return Resumen completo
+     */
+    public String streamSummary(String transcriptionText, String videoTitle, String language,
+                                int minWords, int maxWords, Consumer<String> onChunk) {
+        try {
+            String prompt = prepareSummaryPrompt(transcriptionText, videoTitle, language, minWords, maxWords);
+            StringBuilder summaryText = new StringBuilder();
+
+            dependencyLimiter.call(DependencyLimiter.Dependency.GEMINI_GENERATE, () -> adaptiveLimiter.call("summary-stream", () -> {
+                try (ResponseStream<GenerateContentResponse> stream =
+                             client.models.generateContentStream(MODEL, prompt, null)) {
+                    for (GenerateContentResponse chunk : stream) {
+                        String text = chunk.text();
+                        if (text != null && !text.isEmpty()) {
+                            summaryText.append(text);
+                            onChunk.accept(text);
+                        }
+                    }
+                }
+                return null;
+            }));
+
+            if (summaryText.toString().trim().isEmpty()) {
+                logger.error("Gemini devolvio respuesta vacia");
+                throw new GeminiException("La IA no pudo generar un resumen");
+            }
+
+            logger.info("Resumen en streaming completado. Longitud: {} caracteres", summaryText.length());
+            return summaryText.toString().trim();
+
+        } catch (Exception e) {
+            logger.error("Error al llamar a Gemini API (streaming): {}", e.getMessage(), e);
+            throw new GeminiException("Error al generar resumen con IA: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Construye el prompt final del resumen
+     * Si la transcripcion supera chunkChars se resume por partes en paralelo (map) y el prompt
+     * final combina los resumenes parciales (reduce), en vez de truncar el texto.
+     * Puede bloquear (fase map): en el pipeline reactivo se llama desde boundedElastic
+     */
+    String prepareSummaryPrompt(String transcriptionText, String videoTitle, String language,
+                                        int minWords, int maxWords) {
+        logger.info("Generando resumen de transcripcion");
+        logger.info("Parametros: idioma={}, palabras={}-{}", language, minWords, maxWords);
+        logger.info("Longitud transcripcion: {} caracteres", transcriptionText.length());
+
+        if (transcriptionText.length() <= chunkChars) {
+            return buildSummaryPrompt(transcriptionText, videoTitle, language, minWords, maxWords);
+        }
+
+        List<String> chunks = splitIntoChunks(transcriptionText, chunkChars);
+        logger.info("Transcripcion larga ({} caracteres), resumiendo en {} partes de hasta {} caracteres",
+                transcriptionText.length(), chunks.size(), chunkChars);
+
+        List<String> partialSummaries = summarizeChunks(chunks, videoTitle, language, maxWords);
+        return buildReducePrompt(partialSummaries, videoTitle, language, minWords, maxWords);
+    }
+
+    /**
+     * Resume cada parte en paralelo (como mucho maxParallelChunks llamadas a la vez)
+     * y devuelve los resumenes parciales en el orden original
+     */
+    private List<String> summarizeChunks(List<String> chunks, String videoTitle, String language, int maxWords) {
+        long start = System.currentTimeMillis();
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            String prompt = buildChunkPrompt(chunks.get(i), i + 1, chunks.size(), videoTitle, language, maxWords);
+            futures.add(chunkExecutor.submit(() -> generateText(prompt)));
+        }
+
+        List<String> partialSummaries = new ArrayList<>();
+        try {
+            for (Future<String> future : futures) {
+                partialSummaries.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            throw new GeminiException("Error al resumir una parte de la transcripcion: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new GeminiException("Resumen por partes interrumpido");
+        }
+
+        logger.info("{} resumenes parciales generados en {} ms", chunks.size(), System.currentTimeMillis() - start);
+        return partialSummaries;
+    }
+
+    /**
+     * Llamada simple a Gemini que devuelve el texto generado
+     */
+    private String generateText(String prompt) throws Exception {
+        GenerateContentResponse response = dependencyLimiter.call(DependencyLimiter.Dependency.GEMINI_GENERATE, () ->
+                adaptiveLimiter.call("summary-chunk", () -> client.models.generateContent(MODEL, prompt, null))
+        );
+        String text = response.text();
+
+        if (text == null || text.trim().isEmpty()) {
+            throw new GeminiException("La IA devolvio una respuesta vacia");
+        }
+
+        return text.trim();
+    }
+
+    /**
+     * Divide el texto en partes de hasta maxChars, cortando en final de frase cuando es posible
+     * (si no hay, en un espacio; como ultimo recurso, en maxChars)
+     */
+    private static List<String> splitIntoChunks(String text, int maxChars) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+
+        while (start < text.length()) {
+            int end = Math.min(start + maxChars, text.length());
+
+            if (end < text.length()) {
+                int cut = lastSentenceBoundary(text, start, end);
+                if (cut <= start) {
+                    cut = text.lastIndexOf(' ', end - 1) + 1;
+                }
+                if (cut > start) {
+                    end = cut;
+                }
+            }
+
+            String chunk = text.substring(start, end).trim();
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            start = end;
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Posicion justo despues del ultimo fin de frase (. ! ? o salto de linea) en [start, end)
+     */
+    private static int lastSentenceBoundary(String text, int start, int end) {
+        for (int i = end - 1; i > start; i--) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return i + 1;
+            }
+            if ((c == '.' || c == '!' || c == '?') && i + 1 < text.length()
+                    && Character.isWhitespace(text.charAt(i + 1))) {
+                return i + 1;
+            }
         }
+        return -1;
+    }
+
+    /**
+     * Construye el prompt para resumir una parte de la transcripcion (fase map)
+     */
+    private String buildChunkPrompt(String chunk, int index, int total, String videoTitle, String language,
+                                    int maxWords) {
+        String languageName = getLanguageName(language);
+
+        String titleInfo = (videoTitle != null && !videoTitle.isEmpty())
+                ? "Titulo del video: " + videoTitle + "\n\n"
+                : "";
+
+        return String.format("""
+            %sTe proporciono la parte %d de %d de la transcripcion de un video de YouTube.
+            
+            TRANSCRIPCION (PARTE %d/%d):
+            %s
+            
+            TAREA:
+            Resume en %s los puntos clave de esta parte usando viñetas (*).
+            
+            REQUISITOS:
+            - Maximo %d palabras
+            - Conserva datos concretos: nombres, cifras, ejemplos y conclusiones
+            - NO inventes informacion que no este en esta parte
+            - NO añadas introduccion ni conclusion; solo las viñetas
+            """,
+                titleInfo,
+                index,
+                total,
+                index,
+                total,
+                chunk,
+                languageName,
+                Math.max(150, maxWords / total)
+        );
+    }
+
+    /**
+     * Construye el prompt que combina los resumenes parciales en el resumen final (fase reduce)
+     */
+    private String buildReducePrompt(List<String> partialSummaries, String videoTitle, String language,
+                                     int minWords, int maxWords) {
+        StringBuilder parts = new StringBuilder();
+        for (int i = 0; i < partialSummaries.size(); i++) {
+            parts.append("PARTE ").append(i + 1).append(":\n")
+                    .append(partialSummaries.get(i)).append("\n\n");
+        }
+
+        String intro = "Los siguientes son resumenes parciales, en orden, de las partes consecutivas " +
+                "de un video de YouTube. Tratalos como la transcripcion completa del video.\n\n";
+
+        return intro + buildSummaryPrompt(parts.toString().trim(), videoTitle, language, minWords, maxWords);
+    }
+
+    /**
+     * Prompt de resumen para el modo de una sola llamada: el audio va adjunto en lugar de la transcripcion
+     * Con includeTranscript se pide tambien la transcripcion literal (la respuesta es JSON con esquema)
+     */
+    String buildAudioSummaryPrompt(String videoTitle, String language, int minWords, int maxWords,
+                                   boolean includeTranscript) {
+        String titleInfo = (videoTitle != null && !videoTitle.isEmpty())
+                ? "Titulo del video: " + videoTitle + "\n\n"
+                : "";
+
+        String prompt = titleInfo +
+                "Te adjunto el audio completo de un video de YouTube. Escuchalo entero y resume el audio adjunto.\n\n" +
+                buildSummaryTask("el audio", getLanguageName(language), minWords, maxWords);
+
+        if (includeTranscript) {
+            prompt += "\nDevuelve el resumen en el campo \"summary\"; en el campo \"transcript\", " +
+                    "la transcripcion literal y completa del audio en su idioma original; y en el campo " +
+                    "\"language\", el codigo ISO 639-1 del idioma hablado en el audio (por ejemplo \"es\" o \"en\").\n";
+        }
+
+        return prompt;
     }
 
     /**
@@ -88,6 +364,19 @@ public class GeminiService {
             TRANSCRIPCION:
             %s
             
+            """,
+                titleInfo,
+                transcription
+        ) + buildSummaryTask("la transcripcion", languageName, minWords, maxWords);
+    }
+
+    /**
+     * Tarea, formato y requisitos del resumen, comunes al prompt con transcripcion y al de audio
+     *
+     * @param source de donde sale el contenido ("la transcripcion" o "el audio")
+     */
+    private String buildSummaryTask(String source, String languageName, int minWords, int maxWords) {
+        return String.format("""
             TAREA:
             Genera un resumen estructurado en %s con las siguientes caracteristicas:
             
@@ -113,17 +402,17 @@ public class GeminiService {
             - Usa un tono claro y profesional
             - Organiza la informacion de forma jerarquica
             - Se especifico y concreto en cada punto
-            - NO inventes informacion que no este en la transcripcion
-            - Si la transcripcion esta incompleta, indica que el resumen esta basado en contenido parcial
+            - NO inventes informacion que no este en %s
+            - Si falta parte de %s, indica que el resumen esta basado en contenido parcial
             
             Genera SOLO el resumen siguiendo este formato exacto.
             """,
-                titleInfo,
-                transcription,
                 languageName,
                 languageName,
                 minWords,
-                maxWords
+                maxWords,
+                source,
+                source
         );
     }
 
@@ -0,0 +1,11 @@
+package com.youtubesummarizer.backend.service;
+
+/**
+ * Contenido generado para un video, compartible entre usuarios
+ *
+ * @param videoTitle titulo del video
+ * @param summaryText texto del resumen
+ * @param wordCount numero de palabras del resumen
+ */
+public record GeneratedSummary(String videoTitle, String summaryText, int wordCount) {
+}
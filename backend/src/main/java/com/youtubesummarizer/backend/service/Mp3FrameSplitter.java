@@ -0,0 +1,252 @@
+package com.youtubesummarizer.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divide un MP3 en partes de N segundos cortando en limites de frame, sin recodificar
+ * Cada parte es un MP3 valido por si mismo; los bytes se copian de archivo a archivo
+ * (FileChannel.transferTo) sin pasar por el heap
+ */
+@Component
+public class Mp3FrameSplitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(Mp3FrameSplitter.class);
+
+    // Bitrates en kbps por [version MPEG1 / MPEG2-2.5][capa 1, 2, 3][indice]
+    private static final int[][][] BITRATES = {
+            {
+                    {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+                    {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320}
+            },
+            {
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+            }
+    };
+
+    // Frecuencias de muestreo por [MPEG1, MPEG2, MPEG2.5][indice]
+    private static final int[][] SAMPLE_RATES = {
+            {44100, 48000, 32000},
+            {22050, 24000, 16000},
+            {11025, 12000, 8000}
+    };
+
+    /**
+     * Divide el archivo en partes de segmentSeconds como maximo
+     * Si el audio no supera la duracion de una parte, devuelve el archivo original sin copiarlo
+     *
+     * @param audioFile MP3 de origen
+     * @param segmentSeconds duracion maxima de cada parte
+     * @return partes en orden (el llamante debe borrar las que no sean el original)
+     */
+    public List<Path> split(Path audioFile, int segmentSeconds) throws IOException {
+        List<long[]> ranges = findSegmentRanges(audioFile, segmentSeconds);
+
+        if (ranges.size() <= 1) {
+            return List.of(audioFile);
+        }
+
+        String baseName = audioFile.getFileName().toString().replaceFirst("\\.mp3$", "");
+        List<Path> segments = new ArrayList<>();
+
+        try (FileChannel source = FileChannel.open(audioFile, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                long start = ranges.get(i)[0];
+                long end = ranges.get(i)[1];
+                Path segment = audioFile.resolveSibling(baseName + "_part" + (i + 1) + ".mp3");
+
+                try (FileChannel target = FileChannel.open(segment,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    long position = start;
+                    while (position < end) {
+                        position += source.transferTo(position, end - position, target);
+                    }
+                }
+                segments.add(segment);
+            }
+        } catch (IOException e) {
+            segments.forEach(this::deleteQuietly);
+            throw e;
+        }
+
+        logger.info("Audio {} dividido en {} partes de hasta {} s",
+                audioFile.getFileName(), segments.size(), segmentSeconds);
+        return segments;
+    }
+
+    /**
+     * Recorre los frames y devuelve los rangos de bytes [inicio, fin) de cada parte
+     */
+    private List<long[]> findSegmentRanges(Path audioFile, int segmentSeconds) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(audioFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE) {
+                // Vacio o demasiado grande para mapear: se transcribe sin dividir
+                ranges.add(new long[]{0, size});
+                return ranges;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int length = (int) size;
+
+            int position = skipId3v2(buffer, length);
+            int segmentStart = position;
+            double segmentDuration = 0;
+            // Tras un frame confirmado el siguiente empieza justo donde acaba; sin sincronia hay que confirmarlo
+            boolean synced = false;
+
+            while (position + 4 <= length) {
+                int frameLength = frameLength(buffer, position);
+
+                if (frameLength <= 0 || position + frameLength > length
+                        || (!synced && !confirmsFrame(buffer, position, position + frameLength, length))) {
+                    // Sin sincronia (etiquetas, basura): avanzar byte a byte hasta el siguiente frame
+                    synced = false;
+                    position++;
+                    continue;
+                }
+                synced = true;
+
+                double frameDuration = frameDuration(buffer, position);
+                if (segmentDuration + frameDuration > segmentSeconds && position > segmentStart) {
+                    ranges.add(new long[]{segmentStart, position});
+                    segmentStart = position;
+                    segmentDuration = 0;
+                }
+
+                segmentDuration += frameDuration;
+                position += frameLength;
+            }
+
+            if (segmentStart < length) {
+                ranges.add(new long[]{segmentStart, length});
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Salta la etiqueta ID3v2 inicial si existe
+     */
+    private int skipId3v2(MappedByteBuffer buffer, int length) {
+        if (length < 10 || buffer.get(0) != 'I' || buffer.get(1) != 'D' || buffer.get(2) != '3') {
+            return 0;
+        }
+
+        // Tamaño "syncsafe": 4 bytes de 7 bits
+        int tagSize = ((buffer.get(6) & 0x7F) << 21)
+                | ((buffer.get(7) & 0x7F) << 14)
+                | ((buffer.get(8) & 0x7F) << 7)
+                | (buffer.get(9) & 0x7F);
+        boolean hasFooter = (buffer.get(5) & 0x10) != 0;
+
+        return Math.min(length, 10 + tagSize + (hasFooter ? 10 : 0));
+    }
+
+    /**
+     * Longitud en bytes del frame que empieza en position, o -1 si la cabecera no es valida
+     */
+    private int frameLength(MappedByteBuffer buffer, int position) {
+        int b1 = buffer.get(position) & 0xFF;
+        int b2 = buffer.get(position + 1) & 0xFF;
+        int b3 = buffer.get(position + 2) & 0xFF;
+
+        if (b1 != 0xFF || (b2 & 0xE0) != 0xE0) {
+            return -1;
+        }
+
+        int version = (b2 >> 3) & 0x03;
+        int layer = (b2 >> 1) & 0x03;
+        int bitrateIndex = (b3 >> 4) & 0x0F;
+        int sampleRateIndex = (b3 >> 2) & 0x03;
+        int padding = (b3 >> 1) & 0x01;
+
+        if (version == 1 || layer == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return -1;
+        }
+
+        boolean mpeg1 = version == 3;
+        int layerNumber = 4 - layer;
+        int bitrate = BITRATES[mpeg1 ? 0 : 1][layerNumber - 1][bitrateIndex] * 1000;
+        int sampleRate = sampleRate(version, sampleRateIndex);
+
+        if (layerNumber == 1) {
+            return (12 * bitrate / sampleRate + padding) * 4;
+        }
+        if (layerNumber == 3 && !mpeg1) {
+            return 72 * bitrate / sampleRate + padding;
+        }
+        return 144 * bitrate / sampleRate + padding;
+    }
+
+    /**
+     * Un 0xFF seguido de bits validos aparece a menudo dentro de etiquetas o basura: se acepta el frame
+     * solo si en next empieza otro con la misma version, capa y frecuencia (o si el archivo acaba ahi)
+     */
+    private boolean confirmsFrame(MappedByteBuffer buffer, int position, int next, int length) {
+        if (next + 4 > length) {
+            return true;
+        }
+        if (frameLength(buffer, next) <= 0) {
+            return false;
+        }
+        return (buffer.get(position + 1) & 0xFE) == (buffer.get(next + 1) & 0xFE)
+                && (buffer.get(position + 2) & 0x0C) == (buffer.get(next + 2) & 0x0C);
+    }
+
+    /**
+     * Duracion en segundos de un frame con cabecera valida
+     */
+    private double frameDuration(MappedByteBuffer buffer, int position) {
+        int b2 = buffer.get(position + 1) & 0xFF;
+        int b3 = buffer.get(position + 2) & 0xFF;
+
+        int version = (b2 >> 3) & 0x03;
+        int layerNumber = 4 - ((b2 >> 1) & 0x03);
+        int sampleRate = sampleRate(version, (b3 >> 2) & 0x03);
+
+        int samples;
+        if (layerNumber == 1) {
+            samples = 384;
+        } else if (layerNumber == 3 && version != 3) {
+            samples = 576;
+        } else {
+            samples = 1152;
+        }
+
+        return (double) samples / sampleRate;
+    }
+
+    private int sampleRate(int version, int sampleRateIndex) {
+        int row = switch (version) {
+            case 3 -> 0;
+            case 2 -> 1;
+            default -> 2;
+        };
+        return SAMPLE_RATES[row][sampleRateIndex];
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar parte de audio: {}", e.getMessage());
+        }
+    }
+}
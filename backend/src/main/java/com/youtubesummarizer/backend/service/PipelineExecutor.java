@@ -0,0 +1,342 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor del pipeline por etapas
+ * Cada etapa (descarga, transcripcion, resumen) tiene sus propios hilos, de modo que una etapa
+ * lenta no consume la capacidad de las demas.
+ * Solo se admiten tantos trabajos como hilos tiene la etapa; el resto espera en una unica cola
+ * por tipo de usuario (VIP, PREMIUM, FREE) con envejecimiento, para que los FREE acaben entrando
+ * aunque sigan llegando trabajos de pago. No hay cola FIFO intermedia que se salte ese orden
+ */
+@Component
+public class PipelineExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineExecutor.class);
+
+    /**
+     * Etapas del pipeline con su numero de hilos por defecto
+     */
+    public enum Stage {
+        DOWNLOAD("download", 2),
+        TRANSCRIBE("transcribe", 2),
+        SUMMARIZE("summarize", 4);
+
+        private final String key;
+        private final int defaultWorkers;
+
+        Stage(String key, int defaultWorkers) {
+            this.key = key;
+            this.defaultWorkers = defaultWorkers;
+        }
+    }
+
+    private final Environment environment;
+
+    private final Map<Stage, StageWorkers> stages = new EnumMap<>(Stage.class);
+
+    // Archivos de audio en disco (descargando o esperando transcripcion)
+    private PriorityGate audioSlots;
+
+    // El mismo limite para el pipeline reactivo (summary.pipeline.mode=reactive), sin orden por usuario
+    private ReactivePermits reactiveAudioSlots;
+
+    @Value("${pipeline.audio.max-buffered-files:4}")
+    private int maxBufferedAudioFiles;
+
+    @Value("${pipeline.admission-timeout-seconds:600}")
+    private long admissionTimeoutSeconds;
+
+    // Segundos de espera que equivalen a subir un nivel de usuario en la cola
+    @Value("${pipeline.priority.aging-seconds:30}")
+    private long agingSeconds;
+
+    // Con hilos virtuales cada tarea corre en el hilo del llamante y el limite es un semaforo
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    public PipelineExecutor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (Stage stage : Stage.values()) {
+            int workers = environment.getProperty(
+                    "pipeline." + stage.key + ".workers", Integer.class, stage.defaultWorkers);
+
+            stages.put(stage, new StageWorkers(stage, workers));
+            logger.info("Etapa {} configurada: {} {}", stage, workers,
+                    virtualThreads ? "ejecuciones simultaneas (hilos virtuales)" : "hilos");
+        }
+
+        audioSlots = new PriorityGate(maxBufferedAudioFiles, agingSeconds);
+        reactiveAudioSlots = new ReactivePermits(new Semaphore(maxBufferedAudioFiles));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stages.values().stream()
+                .filter(workers -> workers.executor != null)
+                .forEach(workers -> workers.executor.shutdown());
+    }
+
+    /**
+     * Ejecuta una tarea en los hilos de su etapa y espera el resultado
+     * Si todos los hilos de la etapa estan ocupados, el llamante espera en la cola por prioridad
+     * (backpressure) hasta admissionTimeoutSeconds
+     *
+     * @param stage etapa del pipeline
+     * @param tier tipo de usuario del trabajo (orden en la cola de espera)
+     * @param task tarea a ejecutar
+     * @return resultado de la tarea
+     */
+    public <T> T execute(Stage stage, User.UserType tier, Callable<T> task) {
+        return stages.get(stage).execute(tier, task);
+    }
+
+    /**
+     * Reserva un hueco de audio antes de descargar
+     * Se libera cuando el archivo ya se ha transcrito y borrado; asi una transcripcion lenta
+     * frena las descargas en vez de acumular MP3 en el directorio temporal
+     */
+    public AudioSlot acquireAudioSlot(User.UserType tier) {
+        try {
+            if (!audioSlots.tryAcquire(tier, admissionTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new PipelineSaturatedException(
+                        "El servidor esta procesando demasiados audios. Intenta de nuevo en unos minutos."
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineSaturatedException("Espera de audio interrumpida");
+        }
+        return new AudioSlot();
+    }
+
+    /**
+     * Variante no bloqueante de acquireAudioSlot: la descarga y transcripcion de audio
+     * esperan hueco en cola y lo liberan al terminar, fallar o cancelarse
+     *
+     * @param work descarga y transcribe el audio (y borra el archivo)
+     */
+    public <T> Mono<T> withAudioSlotReactive(Supplier<Mono<T>> work) {
+        return reactiveAudioSlots.call(
+                Duration.ofSeconds(admissionTimeoutSeconds),
+                () -> new PipelineSaturatedException(
+                        "El servidor esta procesando demasiados audios. Intenta de nuevo en unos minutos."
+                ),
+                work
+        );
+    }
+
+    /**
+     * Estadisticas de cada etapa (para monitorizacion)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (StageWorkers workers : stages.values()) {
+            stats.put(workers.stage.key, workers.getStats());
+        }
+
+        Map<String, Object> audio = new LinkedHashMap<>();
+        audio.put("maxBufferedFiles", maxBufferedAudioFiles);
+        audio.put("availableSlots", audioSlots.availablePermits());
+        audio.put("waiting", audioSlots.getQueueLength() + reactiveAudioSlots.waiting());
+        audio.put("tiers", audioSlots.getTierStats());
+        stats.put("audio", audio);
+
+        return stats;
+    }
+
+    /**
+     * Hueco reservado en el buffer de audio; se libera con close()
+     */
+    public class AudioSlot implements AutoCloseable {
+        private boolean released = false;
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                audioSlots.release();
+            }
+        }
+    }
+
+    /**
+     * Hilos, cola de espera y contadores de una etapa
+     */
+    private class StageWorkers {
+        private final Stage stage;
+        private final int workers;
+        // Modo hilos virtuales: null, la tarea corre en el hilo del llamante
+        private final ThreadPoolExecutor executor;
+        // Un permiso por hilo: quien no lo tiene espera aqui, ordenado por tipo de usuario
+        private final PriorityGate running;
+
+        private final AtomicLong completed = new AtomicLong(0);
+        private final AtomicLong failed = new AtomicLong(0);
+        private final AtomicLong totalTimeMs = new AtomicLong(0);
+
+        StageWorkers(Stage stage, int workers) {
+            this.stage = stage;
+            this.workers = workers;
+            this.running = new PriorityGate(workers, agingSeconds);
+            // La cola del pool solo recoge la entrega entre el fin de una tarea y la siguiente admitida
+            this.executor = virtualThreads ? null : new ThreadPoolExecutor(
+                    workers,
+                    workers,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory("pipeline-" + stage.key + "-")
+            );
+        }
+
+        <T> T execute(User.UserType tier, Callable<T> task) {
+            if (executor == null) {
+                return executeInline(tier, task);
+            }
+
+            acquire(running, tier);
+
+            Future<T> future;
+            try {
+                future = executor.submit(() -> {
+                    long start = System.currentTimeMillis();
+                    try {
+                        T result = task.call();
+                        completed.incrementAndGet();
+                        return result;
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        throw e;
+                    } finally {
+                        totalTimeMs.addAndGet(System.currentTimeMillis() - start);
+                        running.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.release();
+                throw new PipelineSaturatedException("La etapa " + stage + " no acepta mas trabajo");
+            }
+
+            return awaitResult(future);
+        }
+
+        /**
+         * Modo hilos virtuales: bloquear el hilo del llamante es barato, asi que la tarea corre
+         * en el mismo hilo y solo se espera a tener hueco en la etapa
+         */
+        private <T> T executeInline(User.UserType tier, Callable<T> task) {
+            acquire(running, tier);
+
+            long start = System.currentTimeMillis();
+            try {
+                T result = task.call();
+                completed.incrementAndGet();
+                return result;
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                throw e;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                throw new RuntimeException(e.getMessage(), e);
+            } finally {
+                totalTimeMs.addAndGet(System.currentTimeMillis() - start);
+                running.release();
+            }
+        }
+
+        private void acquire(PriorityGate permits, User.UserType tier) {
+            try {
+                if (!permits.tryAcquire(tier, admissionTimeoutSeconds, TimeUnit.SECONDS)) {
+                    throw new PipelineSaturatedException(
+                            "El servidor esta muy ocupado. Intenta de nuevo en unos minutos."
+                    );
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PipelineSaturatedException("Espera de la etapa " + stage + " interrumpida");
+            }
+        }
+
+        private <T> T awaitResult(Future<T> future) {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new RuntimeException(cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new PipelineSaturatedException("Etapa " + stage + " interrumpida");
+            }
+        }
+
+        Map<String, Object> getStats() {
+            long done = completed.get() + failed.get();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("workers", workers);
+            stats.put("virtualThreads", executor == null);
+            stats.put("active", workers - running.availablePermits());
+            stats.put("queued", running.getQueueLength());
+            stats.put("tiers", running.getTierStats());
+            stats.put("completed", completed.get());
+            stats.put("failed", failed.get());
+            stats.put("avgTimeMs", done == 0 ? 0 : totalTimeMs.get() / done);
+            return stats;
+        }
+    }
+
+    /**
+     * Nombra los hilos de cada etapa para identificarlos en logs y volcados
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Excepcion cuando una etapa no puede admitir mas trabajo
+     */
+    public static class PipelineSaturatedException extends RuntimeException {
+        public PipelineSaturatedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.User;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tarea con el tipo de usuario que la envio, para ejecutores con cola por prioridad (summaryJobExecutor)
+ * Se ordena igual que las esperas de PriorityGate: llegada - nivel * aging
+ */
+public final class PrioritizedTask implements Runnable {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+
+    private final User.UserType tier;
+    private final Runnable task;
+    private final long arrivalNanos = System.nanoTime();
+    private final long sequence = SEQUENCE.getAndIncrement();
+
+    public PrioritizedTask(User.UserType tier, Runnable task) {
+        this.tier = tier;
+        this.task = task;
+    }
+
+    /**
+     * Las tareas enviadas sin tipo de usuario se tratan como FREE
+     */
+    public static PrioritizedTask of(Runnable task) {
+        return task instanceof PrioritizedTask prioritized ? prioritized : new PrioritizedTask(User.UserType.FREE, task);
+    }
+
+    /**
+     * Orden de la cola (para una PriorityBlockingQueue que solo contenga PrioritizedTask)
+     *
+     * @param agingSeconds segundos de espera que equivalen a subir un nivel de usuario
+     */
+    public static Comparator<Runnable> order(long agingSeconds) {
+        long agingNanos = TimeUnit.SECONDS.toNanos(agingSeconds);
+        Comparator<PrioritizedTask> order = Comparator
+                .comparingLong((PrioritizedTask task) -> PriorityGate.rank(task.tier, task.arrivalNanos, agingNanos))
+                .thenComparingLong(task -> task.sequence);
+        return (a, b) -> order.compare((PrioritizedTask) a, (PrioritizedTask) b);
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+}
@@ -0,0 +1,164 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.User;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Semaforo con cola por prioridad de tipo de usuario
+ * Cuando no hay permisos, entra primero quien tenga menor llegada - nivel * aging:
+ * un VIP adelanta a un FREE que lleva esperando menos de 2 * aging, pero nunca a uno que
+ * lleve mas, de modo que los FREE no se quedan sin turno aunque sigan llegando VIP
+ */
+class PriorityGate {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private final PriorityQueue<Waiter> waiters =
+            new PriorityQueue<>(Comparator.comparingLong(Waiter::rank).thenComparingLong(Waiter::sequence));
+
+    private final long agingNanos;
+    private int available;
+    private long sequence = 0;
+
+    private final Map<User.UserType, TierStats> tierStats = new EnumMap<>(User.UserType.class);
+
+    PriorityGate(int permits, long agingSeconds) {
+        this.available = permits;
+        this.agingNanos = TimeUnit.SECONDS.toNanos(agingSeconds);
+        for (User.UserType tier : User.UserType.values()) {
+            tierStats.put(tier, new TierStats());
+        }
+    }
+
+    /**
+     * Espera un permiso como mucho timeout
+     *
+     * @return false si se agoto la espera
+     */
+    boolean tryAcquire(User.UserType tier, long timeout, TimeUnit unit) throws InterruptedException {
+        long arrival = System.nanoTime();
+        long deadline = arrival + unit.toNanos(timeout);
+
+        lock.lock();
+        try {
+            if (available > 0 && waiters.isEmpty()) {
+                available--;
+                tierStats.get(tier).record(0);
+                return true;
+            }
+
+            Waiter waiter = new Waiter(tier, rank(tier, arrival, agingNanos), sequence++);
+            waiters.add(waiter);
+            try {
+                while (available == 0 || waiters.peek() != waiter) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    changed.awaitNanos(remaining);
+                }
+
+                available--;
+                tierStats.get(tier).record(System.nanoTime() - arrival);
+                return true;
+            } finally {
+                waiters.remove(waiter);
+                // El siguiente en la cola puede tener permiso o haber pasado a ser el primero
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Orden en la cola: menor primero. Cada nivel de usuario equivale a agingNanos de espera
+     * (compartido con PrioritizedTask, para que todas las colas ordenen igual)
+     */
+    static long rank(User.UserType tier, long arrivalNanos, long agingNanos) {
+        return arrivalNanos - tier.ordinal() * agingNanos;
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            available++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int availablePermits() {
+        lock.lock();
+        try {
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueueLength() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera en cola por tipo de usuario: en espera ahora, admitidos y tiempo medio/maximo
+     */
+    Map<String, Object> getTierStats() {
+        Map<User.UserType, Integer> waiting = new EnumMap<>(User.UserType.class);
+        lock.lock();
+        try {
+            for (Waiter waiter : waiters) {
+                waiting.merge(waiter.tier(), 1, Integer::sum);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<User.UserType, TierStats> entry : tierStats.entrySet()) {
+            TierStats tier = entry.getValue();
+            long admitted = tier.admitted.get();
+
+            Map<String, Object> tierMap = new LinkedHashMap<>();
+            tierMap.put("waiting", waiting.getOrDefault(entry.getKey(), 0));
+            tierMap.put("admitted", admitted);
+            tierMap.put("avgWaitMs", admitted == 0 ? 0 : tier.totalWaitMs.get() / admitted);
+            tierMap.put("maxWaitMs", tier.maxWaitMs.get());
+            stats.put(entry.getKey().name(), tierMap);
+        }
+        return stats;
+    }
+
+    private record Waiter(User.UserType tier, long rank, long sequence) {
+    }
+
+    private static class TierStats {
+        private final AtomicLong admitted = new AtomicLong(0);
+        private final AtomicLong totalWaitMs = new AtomicLong(0);
+        private final AtomicLong maxWaitMs = new AtomicLong(0);
+
+        void record(long waitNanos) {
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+            admitted.incrementAndGet();
+            totalWaitMs.addAndGet(waitMs);
+            maxWaitMs.accumulateAndGet(waitMs, Math::max);
+        }
+    }
+}
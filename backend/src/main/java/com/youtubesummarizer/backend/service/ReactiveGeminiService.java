@@ -0,0 +1,96 @@
+package com.youtubesummarizer.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.youtubesummarizer.backend.service.GeminiService.GeminiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Variante no bloqueante de la llamada de resumen a Gemini (REST generateContent sobre WebClient)
+ * El SDK de Gemini es bloqueante; aqui solo se usa GeminiService para construir el prompt
+ * La llamada pasa por el limite adaptativo y el circuito de AdaptiveLimiter, igual que en GeminiService
+ */
+@Service
+public class ReactiveGeminiService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveGeminiService.class);
+
+    private static final String GENERATE_URL =
+            "https://generativelanguage.googleapis.com/v1beta/models/" + GeminiService.MODEL + ":generateContent";
+
+    @Value("${gemini.api.key}")
+    private String geminiApiKey;
+
+    @Autowired
+    private WebClient outboundWebClient;
+
+    @Autowired
+    private GeminiService geminiService;
+
+    @Autowired
+    private AdaptiveLimiter adaptiveLimiter;
+
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Genera un resumen de una transcripcion de video
+     * Con transcripciones largas el prompt incluye los resumenes parciales (map-reduce de GeminiService)
+     */
+    public Mono<String> summarizeTranscription(String transcriptionText, String videoTitle, String language,
+                                               int minWords, int maxWords) {
+        return Mono.fromCallable(() ->
+                        geminiService.prepareSummaryPrompt(transcriptionText, videoTitle, language, minWords, maxWords))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(prompt -> dependencyLimiter.callReactive(DependencyLimiter.Dependency.GEMINI_GENERATE, () ->
+                        adaptiveLimiter.callReactive("summary", -1, () -> outboundWebClient.post()
+                                .uri(GENERATE_URL)
+                                .header("x-goog-api-key", geminiApiKey)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(Map.of("contents", List.of(Map.of("parts", List.of(Map.of("text", prompt))))))
+                                .retrieve()
+                                .bodyToMono(String.class))))
+                .map(this::parseSummary)
+                .doOnNext(summary -> logger.info("Resumen generado exitosamente. Longitud: {} caracteres", summary.length()))
+                .onErrorMap(e -> !(e instanceof GeminiException), e -> {
+                    logger.error("Error al llamar a Gemini API: {}", e.getMessage(), e);
+                    return new GeminiException("Error al generar resumen con IA: " + e.getMessage(), e);
+                });
+    }
+
+    private String parseSummary(String responseBody) {
+        try {
+            JsonNode parts = objectMapper.readTree(responseBody)
+                    .path("candidates").path(0).path("content").path("parts");
+
+            StringBuilder summaryText = new StringBuilder();
+            for (JsonNode part : parts) {
+                summaryText.append(part.path("text").asText(""));
+            }
+
+            if (summaryText.toString().trim().isEmpty()) {
+                logger.error("Gemini devolvio respuesta vacia");
+                throw new GeminiException("La IA no pudo generar un resumen");
+            }
+
+            return summaryText.toString().trim();
+        } catch (GeminiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeminiException("Respuesta de IA no valida", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.youtubesummarizer.backend.service;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Permisos de un Semaphore pedidos sin bloquear desde el pipeline reactivo
+ * Si no hay permiso libre la llamada queda en una cola y se le concede al liberarse otro, sin
+ * ocupar ningun hilo mientras espera. Las llamadas bloqueantes pueden seguir usando el mismo
+ * Semaphore, siempre que lo liberen con release() para atender la cola
+ */
+class ReactivePermits {
+
+    private final Semaphore semaphore;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    ReactivePermits(Semaphore semaphore) {
+        this.semaphore = semaphore;
+    }
+
+    /**
+     * Ejecuta la llamada con un permiso; se libera al terminar, fallar o cancelarse
+     *
+     * @param timeout espera maxima del permiso
+     * @param saturated error si el permiso no llega a tiempo
+     * @param call construye el Mono de la llamada una vez concedido el permiso
+     */
+    <T> Mono<T> call(Duration timeout, Supplier<? extends RuntimeException> saturated, Supplier<Mono<T>> call) {
+        return Mono.usingWhen(
+                acquire(timeout, saturated),
+                permit -> call.get(),
+                permit -> Mono.fromRunnable(this::release)
+        );
+    }
+
+    /**
+     * Devuelve un permiso y lo concede a la primera llamada en cola, si la hay
+     */
+    void release() {
+        semaphore.release();
+        serveWaiters();
+    }
+
+    int waiting() {
+        return waiters.size();
+    }
+
+    private Mono<Boolean> acquire(Duration timeout, Supplier<? extends RuntimeException> saturated) {
+        return Mono.<Boolean>create(sink -> {
+                    if (semaphore.tryAcquire()) {
+                        sink.success(Boolean.TRUE);
+                        return;
+                    }
+
+                    // En cola antes de programar el timeout: si vence enseguida ya puede quitarse de ella
+                    Waiter waiter = new Waiter(sink);
+                    waiters.add(waiter);
+                    sink.onCancel(() -> {
+                        if (waiter.claim()) {
+                            waiters.remove(waiter);
+                            waiter.disposeTimeout();
+                        }
+                    });
+                    waiter.timeout = Schedulers.parallel().schedule(() -> {
+                        if (waiter.claim()) {
+                            waiters.remove(waiter);
+                            sink.error(saturated.get());
+                        }
+                    }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+                    if (waiter.claimed.get()) {
+                        waiter.disposeTimeout();
+                    }
+
+                    // Un permiso liberado entre tryAcquire y add no habria visto esta espera
+                    serveWaiters();
+                })
+                // Permiso concedido a una espera cancelada justo antes de entregarlo
+                .doOnDiscard(Boolean.class, permit -> release());
+    }
+
+    private void serveWaiters() {
+        while (!waiters.isEmpty() && semaphore.tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.claim()) {
+                // Otro hilo la atendio, vencio o se cancelo: el permiso vuelve al semaforo
+                semaphore.release();
+                continue;
+            }
+            waiter.disposeTimeout();
+            waiter.sink.success(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Llamada en cola; claim() decide una sola vez si recibe permiso, vence o se cancela
+     */
+    private static class Waiter {
+        private final MonoSink<Boolean> sink;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private volatile Disposable timeout;
+
+        Waiter(MonoSink<Boolean> sink) {
+            this.sink = sink;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        // Puede llegar antes de programar el timeout; entonces lo anula quien lo programa
+        void disposeTimeout() {
+            Disposable scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.youtubesummarizer.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.youtubesummarizer.backend.service.TranscriptionService.TranscriptionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Variante no bloqueante de TranscriptionService sobre WebClient
+ * Misma secuencia (dividir, subir, generar) y mismos prompts; el audio se sube en streaming
+ * desde el archivo, por bloques y reanudando desde el offset confirmado como en TranscriptionService,
+ * y las partes se transcriben en paralelo sin ocupar hilos mientras esperan
+ */
+@Service
+public class ReactiveTranscriptionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTranscriptionService.class);
+
+    private static final int READ_BUFFER_BYTES = 256 * 1024;
+
+    @Value("${gemini.api.key}")
+    private String geminiApiKey;
+
+    @Value("${transcription.segment-minutes:10}")
+    private int segmentMinutes;
+
+    @Value("${transcription.max-parallel-segments:3}")
+    private int maxParallelSegments;
+
+    @Value("${transcription.inline.max-bytes:1048576}")
+    private long inlineMaxBytes;
+
+    @Autowired
+    private WebClient outboundWebClient;
+
+    @Autowired
+    private TranscriptionService transcriptionService;
+
+    @Autowired
+    private Mp3FrameSplitter mp3FrameSplitter;
+
+    @Autowired
+    private AdaptiveLimiter adaptiveLimiter;
+
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Transcribe un archivo de audio MP3 a texto
+     */
+    public Mono<String> transcribeAudio(Path audioFile, String language) {
+        // Dividir el MP3 es E/S de disco bloqueante: se hace fuera del event loop
+        Mono<List<Path>> segments = Mono.fromCallable(() -> mp3FrameSplitter.split(audioFile, segmentMinutes * 60))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return Mono.usingWhen(
+                        segments,
+                        parts -> Flux.fromIterable(parts)
+                                .flatMapSequential(part -> transcribeSegment(part, language), maxParallelSegments)
+                                .collectList()
+                                .map(texts -> String.join("\n\n", texts)),
+                        parts -> Mono.fromRunnable(() -> deleteSegments(parts, audioFile))
+                                .subscribeOn(Schedulers.boundedElastic())
+                )
+                .doOnNext(text -> logger.info("Transcripcion completada: {} caracteres", text.length()))
+                .onErrorMap(e -> !(e instanceof TranscriptionException), e -> {
+                    logger.error("Error en transcripcion: {}", e.getMessage(), e);
+                    return new TranscriptionException("Error al transcribir: " + e.getMessage(), e);
+                });
+    }
+
+    private Mono<String> transcribeSegment(Path segment, String language) {
+        return Mono.fromCallable(() -> Files.size(segment))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(fileSize -> {
+                    if (fileSize > TranscriptionService.MAX_UPLOAD_BYTES) {
+                        return Mono.error(new TranscriptionException(
+                                String.format("Parte de audio muy grande (%.2f MB). Maximo: 20 MB",
+                                        fileSize / (1024.0 * 1024.0))));
+                    }
+                    if (fileSize <= inlineMaxBytes) {
+                        // Audio corto: una sola llamada con el audio en linea
+                        return Mono.fromCallable(() -> Files.readAllBytes(segment))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .flatMap(audio -> requestTranscription(
+                                        transcriptionService.buildInlineTranscriptionRequest(audio, language), fileSize));
+                    }
+                    // La subida ocupa un permiso de GEMINI_UPLOAD de principio a fin, como en TranscriptionService
+                    return dependencyLimiter.callReactive(DependencyLimiter.Dependency.GEMINI_UPLOAD, () ->
+                                    initiateResumableUpload(fileSize)
+                                            .flatMap(uploadUrl -> uploadFile(uploadUrl, segment, fileSize)))
+                            .flatMap(fileUri -> generateTranscription(fileUri, language, fileSize));
+                });
+    }
+
+    /**
+     * Paso 1: Inicia la sesion de subida resumible
+     */
+    private Mono<String> initiateResumableUpload(long fileSize) {
+        return outboundWebClient.post()
+                .uri(TranscriptionService.UPLOAD_URL)
+                .header("x-goog-api-key", geminiApiKey)
+                .header("X-Goog-Upload-Protocol", "resumable")
+                .header("X-Goog-Upload-Command", "start")
+                .header("X-Goog-Upload-Header-Content-Length", String.valueOf(fileSize))
+                .header("X-Goog-Upload-Header-Content-Type", "audio/mp3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("file", Map.of("display_name", "AUDIO")))
+                .retrieve()
+                .toBodilessEntity()
+                .map(response -> {
+                    String uploadUrl = response.getHeaders().getFirst("X-Goog-Upload-URL");
+                    if (uploadUrl == null) {
+                        throw new TranscriptionException("No se recibio URL de subida");
+                    }
+                    return uploadUrl;
+                });
+    }
+
+    /**
+     * Paso 2: Sube el archivo por bloques usando la URL resumible
+     * Si un bloque falla se consulta cuantos bytes tiene confirmados el servidor y se sigue desde
+     * ese offset; mismos reintentos y esperas que TranscriptionService.uploadFile
+     */
+    private Mono<String> uploadFile(String uploadUrl, Path audioFile, long fileSize) {
+        return uploadFrom(uploadUrl, audioFile, fileSize, 0, 0);
+    }
+
+    private Mono<String> uploadFrom(String uploadUrl, Path audioFile, long fileSize, long offset, int retries) {
+        long length = Math.min(transcriptionService.uploadChunkBytes(), fileSize - offset);
+        boolean lastChunk = offset + length >= fileSize;
+
+        return uploadChunk(uploadUrl, audioFile, offset, length, lastChunk)
+                .map(body -> lastChunk ? UploadStep.finished(body) : UploadStep.next(offset + length, 0))
+                .onErrorResume(ReactiveTranscriptionService::isRetryableUploadError, e -> {
+                    logger.warn("Fallo al subir bloque en offset {} ({}). Consultando estado de la subida...",
+                            offset, e.getMessage());
+                    return resume(uploadUrl, offset, retries, e);
+                })
+                .flatMap(step -> step.body() != null
+                        ? Mono.fromCallable(() -> parseFileUri(step.body()))
+                        : uploadFrom(uploadUrl, audioFile, fileSize, step.offset(), step.retries()));
+    }
+
+    /**
+     * Espera, consulta el offset confirmado y decide desde donde seguir
+     * Los reintentos solo se acumulan mientras la subida no avanza
+     */
+    private Mono<UploadStep> resume(String uploadUrl, long offset, int retries, Throwable lastError) {
+        int retry = retries + 1;
+        if (retry > transcriptionService.uploadMaxRetries()) {
+            return Mono.error(new TranscriptionException("Subida interrumpida en el offset " + offset + " tras "
+                    + transcriptionService.uploadMaxRetries() + " reintentos sin avanzar: " + lastError.getMessage(),
+                    lastError));
+        }
+        transcriptionService.recordUploadRetry();
+
+        return Mono.delay(Duration.ofMillis(transcriptionService.retryBackoffMs(retry)))
+                .then(queryUploadStatus(uploadUrl))
+                .map(status -> {
+                    if (status.body() != null) {
+                        return status;
+                    }
+                    logger.info("Reanudando subida desde offset {}", status.offset());
+                    return UploadStep.next(status.offset(), status.offset() > offset ? 0 : retry);
+                })
+                .onErrorResume(ReactiveTranscriptionService::isRetryableUploadError, queryError -> {
+                    logger.warn("No se pudo consultar el estado de la subida ({})", queryError.getMessage());
+                    return resume(uploadUrl, offset, retry, queryError);
+                });
+    }
+
+    /**
+     * Envia un bloque [offset, offset + length) leyendolo del archivo por bloques de disco
+     */
+    private Mono<String> uploadChunk(String uploadUrl, Path audioFile, long offset, long length, boolean lastChunk) {
+        return Mono.defer(() -> {
+            long start = System.currentTimeMillis();
+            Flux<DataBuffer> chunk = DataBufferUtils.takeUntilByteCount(
+                    DataBufferUtils.readAsynchronousFileChannel(
+                            () -> AsynchronousFileChannel.open(audioFile, StandardOpenOption.READ),
+                            offset, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_BYTES),
+                    length);
+
+            return outboundWebClient.post()
+                    .uri(uploadUrl)
+                    .header("X-Goog-Upload-Offset", String.valueOf(offset))
+                    .header("X-Goog-Upload-Command", lastChunk ? "upload, finalize" : "upload")
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(length)
+                    .body(BodyInserters.fromDataBuffers(chunk))
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .defaultIfEmpty("")
+                    .doOnNext(body -> {
+                        long elapsed = System.currentTimeMillis() - start;
+                        transcriptionService.recordUploadedChunk(length, elapsed);
+                        logger.debug("Bloque subido: offset={}, {} bytes en {} ms", offset, length, elapsed);
+                    });
+        });
+    }
+
+    /**
+     * Consulta cuantos bytes ha confirmado el servidor; si la subida ya se cerro devuelve su respuesta
+     */
+    private Mono<UploadStep> queryUploadStatus(String uploadUrl) {
+        return outboundWebClient.post()
+                .uri(uploadUrl)
+                .header("X-Goog-Upload-Command", "query")
+                .retrieve()
+                .toEntity(String.class)
+                .map(response -> {
+                    String status = response.getHeaders().getFirst("X-Goog-Upload-Status");
+                    if ("final".equalsIgnoreCase(status)) {
+                        return UploadStep.finished(response.getBody() == null ? "" : response.getBody());
+                    }
+
+                    String received = response.getHeaders().getFirst("X-Goog-Upload-Size-Received");
+                    if (received == null) {
+                        throw new TranscriptionException("No se pudo consultar el estado de la subida");
+                    }
+                    try {
+                        return UploadStep.next(Long.parseLong(received.trim()), 0);
+                    } catch (NumberFormatException e) {
+                        throw new TranscriptionException("Estado de la subida no valido: " + received);
+                    }
+                });
+    }
+
+    /**
+     * Errores de red, 5xx, 429 y consultas sin respuesta valida pueden ser transitorios;
+     * cualquier otro 4xx (offset no valido, sesion caducada) se repetiria igual
+     */
+    private static boolean isRetryableUploadError(Throwable e) {
+        if (e instanceof WebClientResponseException responseError) {
+            int status = responseError.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return e instanceof WebClientRequestException || e instanceof IOException
+                || e instanceof TimeoutException || e instanceof TranscriptionException;
+    }
+
+    /**
+     * Siguiente paso de la subida: seguir desde offset, o body con la respuesta final
+     */
+    private record UploadStep(String body, long offset, int retries) {
+        static UploadStep next(long offset, int retries) {
+            return new UploadStep(null, offset, retries);
+        }
+
+        static UploadStep finished(String body) {
+            return new UploadStep(body, 0, 0);
+        }
+    }
+
+    /**
+     * Paso 3: Genera la transcripcion usando el archivo subido
+     */
+    private Mono<String> generateTranscription(String fileUri, String language, long audioBytes) {
+        return requestTranscription(transcriptionService.buildTranscriptionRequest(fileUri, language), audioBytes);
+    }
+
+    /**
+     * Llamada a generateContent bajo GEMINI_GENERATE y el limite adaptativo, como en TranscriptionService
+     */
+    private Mono<String> requestTranscription(Map<String, Object> body, long audioBytes) {
+        return dependencyLimiter.callReactive(DependencyLimiter.Dependency.GEMINI_GENERATE, () ->
+                        adaptiveLimiter.callReactive("transcription", audioBytes, () -> outboundWebClient.post()
+                                .uri(TranscriptionService.GENERATE_URL)
+                                .header("x-goog-api-key", geminiApiKey)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(body)
+                                .retrieve()
+                                .bodyToMono(String.class)))
+                .map(responseBody -> {
+                    try {
+                        return transcriptionService.parseTranscription(responseBody);
+                    } catch (IOException e) {
+                        throw new TranscriptionException("Respuesta de Gemini no valida", e);
+                    }
+                });
+    }
+
+    private String parseFileUri(String responseBody) {
+        try {
+            JsonNode jsonResponse = objectMapper.readTree(responseBody);
+            String fileUri = jsonResponse.path("file").path("uri").asText();
+
+            if (fileUri == null || fileUri.isEmpty()) {
+                throw new TranscriptionException("No se recibio URI del archivo");
+            }
+
+            return fileUri;
+        } catch (IOException e) {
+            throw new TranscriptionException("Respuesta de subida no valida", e);
+        }
+    }
+
+    private void deleteSegments(List<Path> segments, Path audioFile) {
+        for (Path segment : segments) {
+            if (segment.equals(audioFile)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                logger.warn("No se pudo eliminar parte de audio: {}", e.getMessage());
+            }
+        }
+    }
+}
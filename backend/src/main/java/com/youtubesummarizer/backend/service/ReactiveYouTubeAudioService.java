@@ -0,0 +1,122 @@
+package com.youtubesummarizer.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.youtubesummarizer.backend.service.YouTubeAudioService.AudioDownloadException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * Variante no bloqueante de YouTubeAudioService sobre WebClient
+ * El MP3 se escribe a disco a medida que llegan los bloques, sin cargarlo en memoria
+ */
+@Service
+public class ReactiveYouTubeAudioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveYouTubeAudioService.class);
+
+    @Value("${youtube.audio.api.base-url:http://localhost:5000}")
+    private String audioApiBaseUrl;
+
+    @Autowired
+    private WebClient outboundWebClient;
+
+    @Autowired
+    private YouTubeAudioService youTubeAudioService;
+
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"), "youtube-audio");
+
+    /**
+     * Descarga el audio de un video a un archivo temporal
+     * Token y descarga ocupan un permiso de AUDIO_API, igual que en YouTubeAudioService
+     * @param videoUrl URL del video
+     * @return ruta del MP3 descargado (el llamante debe borrarlo)
+     */
+    public Mono<Path> downloadAudio(String videoUrl) {
+        return dependencyLimiter.callReactive(DependencyLimiter.Dependency.AUDIO_API, () ->
+                        requestToken(videoUrl).flatMap(this::downloadAudioFile))
+                .doOnNext(audioFile -> logger.info("Audio descargado exitosamente: {}", audioFile.getFileName()))
+                .onErrorMap(e -> !(e instanceof AudioDownloadException), e -> {
+                    logger.error("Error inesperado: {}", e.getMessage(), e);
+                    return new AudioDownloadException("Error inesperado al procesar el video");
+                });
+    }
+
+    private Mono<String> requestToken(String videoUrl) {
+        return outboundWebClient.get()
+                .uri(audioApiBaseUrl + "/?url={url}", videoUrl)
+                .retrieve()
+                .onStatus(HttpStatusCode::is5xxServerError, response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> {
+                            logger.error("Error 500: {}", body);
+                            return new AudioDownloadException(youTubeAudioService.parseErrorMessage(body));
+                        }))
+                .onStatus(HttpStatusCode::is4xxClientError, response ->
+                        Mono.just(new AudioDownloadException("URL invalida o video no disponible")))
+                .bodyToMono(String.class)
+                .switchIfEmpty(Mono.error(new AudioDownloadException("Respuesta vacia de la API")))
+                .map(this::parseToken);
+    }
+
+    private String parseToken(String responseBody) {
+        try {
+            JsonNode jsonNode = objectMapper.readTree(responseBody);
+            String token = jsonNode.path("token").asText();
+
+            if (token == null || token.isEmpty()) {
+                throw new AudioDownloadException("Token no encontrado");
+            }
+
+            return token;
+        } catch (AudioDownloadException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AudioDownloadException("Error al comunicarse con el servicio");
+        }
+    }
+
+    private Mono<Path> downloadAudioFile(String token) {
+        Path audioFile = tempDir.resolve("audio_" + UUID.randomUUID() + ".mp3");
+
+        Flux<DataBuffer> body = outboundWebClient.get()
+                .uri(audioApiBaseUrl + "/download?token={token}", token)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+
+        return Mono.fromCallable(() -> Files.createDirectories(tempDir))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(DataBufferUtils.write(body, audioFile))
+                .then(Mono.fromCallable(() -> {
+                    long size = Files.size(audioFile);
+                    if (size == 0) {
+                        throw new AudioDownloadException("El archivo esta vacio");
+                    }
+                    logger.info("Audio guardado: {} ({} bytes)", audioFile, size);
+                    return audioFile;
+                }))
+                .onErrorResume(e -> Mono.fromRunnable(() -> youTubeAudioService.cleanupAudioFile(audioFile))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.error(e)));
+    }
+}
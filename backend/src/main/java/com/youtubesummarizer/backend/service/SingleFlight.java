@@ -0,0 +1,127 @@
+package com.youtubesummarizer.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicacion de trabajo en curso
+ * Si varias peticiones piden lo mismo a la vez, solo la primera ejecuta el trabajo
+ * y las demas esperan su resultado (o su error)
+ */
+@Component
+public class SingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    // Trabajos en curso por clave
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // Trabajos reactivos en curso por clave (pipeline reactivo)
+    private final Map<Object, Mono<Object>> inFlightReactive = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+
+    /**
+     * Ejecuta el trabajo o se une a una ejecucion en curso con la misma clave
+     *
+     * @param key clave del trabajo
+     * @param work trabajo a ejecutar si no hay otro en curso
+     * @return resultado del trabajo
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> work) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            logger.info("Uniendose a trabajo en curso para {}", key);
+            return (T) await(existing);
+        }
+
+        executions.incrementAndGet();
+        try {
+            T result = work.get();
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            // Cualquier fallo (tambien un Error) se entrega a los seguidores; si no, esperarian para siempre
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Variante reactiva: suscriptores con la misma clave comparten un solo Mono en curso
+     * No bloquea hilos mientras se espera el resultado
+     *
+     * @param key clave del trabajo
+     * @param work construye el Mono a ejecutar si no hay otro en curso
+     * @return Mono compartido con el resultado del trabajo
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeReactive(Object key, Supplier<Mono<T>> work) {
+        return Mono.defer(() -> {
+            AtomicBoolean created = new AtomicBoolean(false);
+
+            Mono<Object> shared = inFlightReactive.computeIfAbsent(key, k -> {
+                created.set(true);
+                return ((Mono<Object>) work.get())
+                        .doFinally(signal -> inFlightReactive.remove(k))
+                        .cache();
+            });
+
+            if (created.get()) {
+                executions.incrementAndGet();
+            } else {
+                coalesced.incrementAndGet();
+                logger.info("Uniendose a trabajo en curso para {}", key);
+            }
+
+            return (Mono<T>) shared;
+        });
+    }
+
+    /**
+     * Estadisticas de deduplicacion (para monitorizacion)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.size() + inFlightReactive.size());
+        stats.put("executions", executions.get());
+        stats.put("coalesced", coalesced.get());
+        return stats;
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Espera de trabajo en curso interrumpida");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.SummaryContent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache L1 en memoria de contenidos de resumen generados
+ * Se consulta antes que la base de datos; expulsa por LRU al llenarse y por TTL al caducar
+ */
+@Component
+public class SummaryCache {
+
+    private final int maxEntries;
+    private final Duration ttl;
+
+    // LinkedHashMap en orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<SummaryKey, CacheEntry> entries;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong expirations = new AtomicLong(0);
+
+    public SummaryCache(@Value("${summary.cache.max-entries:1000}") int maxEntries,
+                        @Value("${summary.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SummaryKey, CacheEntry> eldest) {
+                if (size() > SummaryCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Busca un resumen en cache
+     * @param key video, idioma y rango de palabras
+     * @return Optional con el resumen si esta y no ha caducado
+     */
+    public synchronized Optional<SummaryContent> get(SummaryKey key) {
+        CacheEntry entry = entries.get(key);
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        if (entry.isExpired()) {
+            entries.remove(key);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        hits.incrementAndGet();
+        return Optional.of(entry.content());
+    }
+
+    /**
+     * Guarda un resumen en cache
+     */
+    public synchronized void put(SummaryKey key, SummaryContent content) {
+        entries.put(key, new CacheEntry(content, Instant.now().plus(ttl)));
+    }
+
+    /**
+     * Estadisticas de la cache (para monitorizacion)
+     */
+    public synchronized Map<String, Object> getStats() {
+        long totalLookups = hits.get() + misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMinutes", ttl.toMinutes());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", totalLookups == 0 ? 0.0 : (double) hits.get() / totalLookups);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        return stats;
+    }
+
+    private record CacheEntry(SummaryContent content, Instant expiresAt) {
+        boolean isExpired() {
+            return Instant.now().isAfter(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.dto.SummaryRequest;
+import com.youtubesummarizer.backend.dto.SummaryResponse;
+import com.youtubesummarizer.backend.model.SummaryJob;
+import com.youtubesummarizer.backend.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio de trabajos de resumen asincronos
+ * La peticion HTTP solo encola el trabajo; el pipeline corre en summaryJobExecutor
+ */
+@Service
+public class SummaryJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummaryJobService.class);
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(10);
+
+    private static final String REACTIVE_MODE = "reactive";
+
+    @Autowired
+    private SummaryService summaryService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    @Qualifier("summaryJobExecutor")
+    private TaskExecutor summaryJobExecutor;
+
+    @Value("${summary.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${summary.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    // "blocking" (pool de hilos y etapas) o "reactive" (WebClient, sin hilo por trabajo)
+    @Value("${summary.pipeline.mode:blocking}")
+    private String pipelineMode;
+
+    @Value("${summary.reactive.max-in-flight:500}")
+    private int reactiveMaxInFlight;
+
+    private final AtomicInteger reactiveInFlight = new AtomicInteger(0);
+
+    // Trabajos en memoria por ID
+    private final Map<String, SummaryJob> jobs = new ConcurrentHashMap<>();
+
+    private volatile Instant lastCleanup = Instant.now();
+
+    /**
+     * Encola un nuevo trabajo de resumen para el usuario autenticado
+     * @param request datos de la peticion
+     * @return trabajo creado (en estado QUEUED)
+     */
+    public SummaryJob submit(SummaryRequest request) {
+        User user = userService.getCurrentUser();
+
+        cleanupIfNeeded();
+
+        SummaryJob job = new SummaryJob(
+                user.getId(),
+                request.getVideoUrl(),
+                request.getLanguage(),
+                request.getWordCountRange()
+        );
+        jobs.put(job.getId(), job);
+
+        if (REACTIVE_MODE.equalsIgnoreCase(pipelineMode)) {
+            submitReactive(job, user, request);
+            logger.info("Trabajo {} iniciado (reactivo) para usuario {}", job.getId(), user.getUsername());
+            return job;
+        }
+
+        try {
+            // En la cola del pool los trabajos VIP y PREMIUM adelantan a los FREE (con envejecimiento)
+            summaryJobExecutor.execute(new PrioritizedTask(user.getUserType(), () -> run(job, user, request)));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            logger.warn("Cola de trabajos llena, rechazando peticion de {}", user.getUsername());
+            throw new JobQueueFullException(
+                    "El servidor esta procesando demasiados resumenes. Intenta de nuevo en unos minutos."
+            );
+        }
+
+        logger.info("Trabajo {} encolado para usuario {}", job.getId(), user.getUsername());
+        return job;
+    }
+
+    /**
+     * Genera un resumen enviando etapas y texto parcial por Server-Sent Events
+     * Eventos: "stage" (etapa actual), "chunk" (fragmento de texto), "done" (resumen guardado), "error"
+     *
+     * @param request datos de la peticion
+     * @return emisor SSE que se completa cuando el resumen esta guardado
+     */
+    public SseEmitter stream(SummaryRequest request) {
+        User user = userService.getCurrentUser();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        try {
+            summaryJobExecutor.execute(new PrioritizedTask(user.getUserType(), () -> runStream(emitter, user, request)));
+        } catch (TaskRejectedException e) {
+            logger.warn("Cola de trabajos llena, rechazando streaming de {}", user.getUsername());
+            throw new JobQueueFullException(
+                    "El servidor esta procesando demasiados resumenes. Intenta de nuevo en unos minutos."
+            );
+        }
+
+        return emitter;
+    }
+
+    /**
+     * Obtiene un trabajo del usuario autenticado
+     */
+    public SummaryJob getJob(String jobId) {
+        User user = userService.getCurrentUser();
+        SummaryJob job = jobs.get(jobId);
+
+        if (job == null) {
+            throw new RuntimeException("Trabajo no encontrado");
+        }
+
+        if (!job.belongsTo(user)) {
+            throw new RuntimeException("No tienes permiso para ver este trabajo");
+        }
+
+        return job;
+    }
+
+    /**
+     * Ejecuta el pipeline completo y registra el resultado en el trabajo
+     */
+    private void run(SummaryJob job, User user, SummaryRequest request) {
+        try {
+            SummaryResponse response = summaryService.generateSummary(user, request, job::moveTo);
+            job.complete(response);
+            logger.info("Trabajo {} completado", job.getId());
+        } catch (Exception e) {
+            logger.error("Trabajo {} fallido: {}", job.getId(), e.getMessage());
+            job.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Lanza el pipeline reactivo sin ocupar un hilo del pool; el limite es de trabajos en vuelo
+     */
+    private void submitReactive(SummaryJob job, User user, SummaryRequest request) {
+        if (reactiveInFlight.incrementAndGet() > reactiveMaxInFlight) {
+            reactiveInFlight.decrementAndGet();
+            jobs.remove(job.getId());
+            logger.warn("Demasiados trabajos reactivos en curso, rechazando peticion de {}", user.getUsername());
+            throw new JobQueueFullException(
+                    "El servidor esta procesando demasiados resumenes. Intenta de nuevo en unos minutos."
+            );
+        }
+
+        summaryService.generateSummaryReactive(user, request, job::moveTo)
+                .doFinally(signal -> reactiveInFlight.decrementAndGet())
+                .subscribe(
+                        response -> {
+                            job.complete(response);
+                            logger.info("Trabajo {} completado", job.getId());
+                        },
+                        e -> {
+                            logger.error("Trabajo {} fallido: {}", job.getId(), e.getMessage());
+                            job.fail(e.getMessage());
+                        }
+                );
+    }
+
+    /**
+     * Ejecuta el pipeline en streaming; si el cliente se desconecta el resumen se guarda igualmente
+     */
+    private void runStream(SseEmitter emitter, User user, SummaryRequest request) {
+        try {
+            SummaryResponse response = summaryService.streamSummary(
+                    user,
+                    request,
+                    stage -> sendEvent(emitter, "stage", Map.of("stage", stage.name())),
+                    chunk -> sendEvent(emitter, "chunk", Map.of("text", chunk))
+            );
+            sendEvent(emitter, "done", response);
+            emitter.complete();
+        } catch (Exception e) {
+            logger.error("Streaming de resumen fallido: {}", e.getMessage());
+            sendEvent(emitter, "error", Map.of("error", String.valueOf(e.getMessage())));
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Envia un evento SSE ignorando clientes desconectados
+     */
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Cliente SSE desconectado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina trabajos terminados antiguos para evitar memory leaks
+     */
+    private void cleanupIfNeeded() {
+        Instant now = Instant.now();
+        if (Duration.between(lastCleanup, now).compareTo(CLEANUP_INTERVAL) > 0) {
+            LocalDateTime threshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+            jobs.values().removeIf(job -> job.getStage().isFinished() && job.getUpdatedAt().isBefore(threshold));
+            lastCleanup = now;
+            logger.debug("Limpieza de trabajos terminados. Trabajos actuales: {}", jobs.size());
+        }
+    }
+
+    /**
+     * Excepcion cuando la cola de trabajos esta llena
+     */
+    public static class JobQueueFullException extends RuntimeException {
+        public JobQueueFullException(String message) {
+            super(message);
+        }
+    }
+}
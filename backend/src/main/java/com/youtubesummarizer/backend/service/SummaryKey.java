@@ -0,0 +1,12 @@
+package com.youtubesummarizer.backend.service;
+
+/**
+ * Clave que identifica un resumen generado: mismo video, idioma y rango de palabras
+ * producen el mismo contenido para cualquier usuario
+ *
+ * @param videoId ID de 11 caracteres del video de YouTube
+ * @param language codigo de idioma del resumen
+ * @param wordCountRange rango de palabras solicitado (ej. "100-200")
+ */
+public record SummaryKey(String videoId, String language, String wordCountRange) {
+}
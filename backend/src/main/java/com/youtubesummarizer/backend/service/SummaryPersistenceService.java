@@ -0,0 +1,102 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.Summary;
+import com.youtubesummarizer.backend.model.SummaryContent;
+import com.youtubesummarizer.backend.model.User;
+import com.youtubesummarizer.backend.repository.SummaryContentRepository;
+import com.youtubesummarizer.backend.repository.SummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Servicio de persistencia de resumenes
+ * Agrupa en transacciones cortas el guardado del contenido, del resumen y el cobro de la cuota,
+ * para que el pipeline externo (audio, transcripcion, IA) corra sin conexion JDBC abierta
+ */
+@Service
+public class SummaryPersistenceService {
+
+    @Autowired
+    private SummaryRepository summaryRepository;
+
+    @Autowired
+    private SummaryContentRepository summaryContentRepository;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    /**
+     * Guarda el resumen del usuario e incrementa su uso diario
+     * Vuelve a comprobar el limite: otra peticion pudo consumirlo mientras corria el pipeline
+     *
+     * @param user usuario propietario del resumen
+     * @param summary resumen a guardar
+     * @return peticiones restantes tras el cobro
+     */
+    @Transactional
+    public int saveAndChargeUsage(User user, Summary summary) {
+        if (!rateLimitService.canMakeRequest(user)) {
+            throw new RuntimeException(
+                    "Has alcanzado el limite de resumenes diarios. " +
+                            "Limite: " + user.getDailyLimit() + " resumenes por dia."
+            );
+        }
+
+        summaryRepository.save(summary);
+        rateLimitService.incrementUsage(user);
+
+        return rateLimitService.getRemainingRequests(user);
+    }
+
+    /**
+     * Guarda el contenido generado para una clave, o devuelve el ya existente
+     * Si otra instancia lo inserta a la vez, la restriccion unica hace fallar esta transaccion
+     * y el llamante puede volver a buscarlo
+     *
+     * @param key video, idioma y rango de palabras
+     * @param generated contenido generado por el pipeline
+     * @return contenido persistido
+     */
+    @Transactional
+    public SummaryContent saveContent(SummaryKey key, GeneratedSummary generated) {
+        return summaryContentRepository
+                .findByVideoIdAndLanguageAndWordCountRange(key.videoId(), key.language(), key.wordCountRange())
+                .orElseGet(() -> summaryContentRepository.saveAndFlush(SummaryContent.create(
+                        key.videoId(),
+                        key.language(),
+                        key.wordCountRange(),
+                        generated.videoTitle(),
+                        generated.summaryText(),
+                        generated.wordCount()
+                )));
+    }
+
+    /**
+     * Pasa un lote de resumenes antiguos a contenido compartido y borra su texto duplicado
+     *
+     * @param batchSize resumenes por lote
+     * @return numero de resumenes migrados (0 cuando no quedan)
+     */
+    @Transactional
+    public int migrateLegacyBatch(int batchSize) {
+        List<Summary> legacy = summaryRepository
+                .findByContentIsNullAndSummaryTextIsNotNullAndWordCountRangeIsNotNull(PageRequest.of(0, batchSize));
+
+        for (Summary summary : legacy) {
+            SummaryKey key = new SummaryKey(summary.getVideoId(), summary.getLanguage(), summary.getWordCountRange());
+            SummaryContent content = saveContent(key, new GeneratedSummary(
+                    summary.getVideoTitle(),
+                    summary.getSummaryText(),
+                    summary.getWordCount()
+            ));
+            summary.setContent(content);
+            summary.setSummaryText(null);
+        }
+
+        return legacy.size();
+    }
+}
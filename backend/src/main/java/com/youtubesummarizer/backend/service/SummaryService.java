@@ -3,18 +3,30 @@ package com.youtubesummarizer.backend.service;
 import com.youtubesummarizer.backend.dto.SummaryRequest;
 import com.youtubesummarizer.backend.dto.SummaryResponse;
 import com.youtubesummarizer.backend.model.Summary;
+import com.youtubesummarizer.backend.model.SummaryContent;
+import com.youtubesummarizer.backend.model.SummaryJob;
+import com.youtubesummarizer.backend.model.Transcript;
 import com.youtubesummarizer.backend.model.User;
+import com.youtubesummarizer.backend.repository.SummaryContentRepository;
 import com.youtubesummarizer.backend.repository.SummaryRepository;
+import com.youtubesummarizer.backend.repository.TranscriptRepository;
 import com.youtubesummarizer.backend.service.GeminiService.GeminiException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.nio.file.Path;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +40,12 @@ public class SummaryService {
     @Autowired
     private SummaryRepository summaryRepository;
 
+    @Autowired
+    private SummaryContentRepository summaryContentRepository;
+
+    @Autowired
+    private TranscriptRepository transcriptRepository;
+
     @Autowired
     private UserService userService;
 
@@ -37,20 +55,103 @@ public class SummaryService {
     @Autowired
     private YouTubeAudioService audioService;
 
+    @Autowired
+    private AudioStore audioStore;
+
+    @Autowired
+    private ReactiveYouTubeAudioService reactiveAudioService;
+
+    @Autowired
+    private ReactiveTranscriptionService reactiveTranscriptionService;
+
+    @Autowired
+    private CaptionService captionService;
+
+    @Autowired
+    private VideoMetadataService videoMetadataService;
+
+    @Autowired
+    private ReactiveGeminiService reactiveGeminiService;
+
     @Autowired
     private TranscriptionService transcriptionService;
 
     @Autowired
     private GeminiService geminiService;
 
+    @Autowired
+    private SummaryPersistenceService summaryPersistenceService;
+
+    @Autowired
+    private PipelineExecutor pipelineExecutor;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private SummaryCache summaryCache;
+
+    // Resumir directamente del audio en una llamada cuando no hay transcripcion ni subtitulos
+    @Value("${summary.single-call.enabled:false}")
+    private boolean singleCallEnabled;
+
+    // En ese modo, pedir tambien la transcripcion para guardarla y reutilizarla
+    @Value("${summary.single-call.include-transcript:true}")
+    private boolean singleCallIncludeTranscript;
+
     /**
      * Genera un resumen de un video de YouTube
      * Flujo: Descargar Audio → Transcribir → Resumir → Guardar
+     *
+     * Sin @Transactional: el pipeline externo tarda minutos y no debe retener una
+     * conexion JDBC. Solo la comprobacion de cuota y el guardado final abren transacciones cortas.
      */
-    @Transactional
     public SummaryResponse generateSummary(SummaryRequest request) {
-        User user = userService.getCurrentUser();
+        return generateSummary(userService.getCurrentUser(), request, stage -> { });
+    }
+
+    /**
+     * Genera un resumen para un usuario concreto
+     * Usado por los trabajos asincronos, donde no hay contexto de seguridad
+     *
+     * @param user usuario que solicita el resumen
+     * @param request datos de la peticion
+     * @param progress recibe cada etapa del pipeline a medida que avanza
+     */
+    public SummaryResponse generateSummary(User user, SummaryRequest request, Consumer<SummaryJob.Stage> progress) {
+        return generate(user, request, progress, null);
+    }
 
+    /**
+     * Genera un resumen entregando el texto parcial a medida que la IA lo produce
+     * Si el contenido ya existia (cache o peticion identica en curso) se entrega completo de una vez
+     *
+     * @param user usuario que solicita el resumen
+     * @param request datos de la peticion
+     * @param progress recibe cada etapa del pipeline a medida que avanza
+     * @param onChunk recibe cada fragmento de texto del resumen
+     */
+    public SummaryResponse streamSummary(User user, SummaryRequest request, Consumer<SummaryJob.Stage> progress,
+                                         Consumer<String> onChunk) {
+        AtomicBoolean streamed = new AtomicBoolean(false);
+
+        SummaryResponse response = generate(user, request, progress, chunk -> {
+            streamed.set(true);
+            onChunk.accept(chunk);
+        });
+
+        if (!streamed.get()) {
+            onChunk.accept(response.getSummaryText());
+        }
+
+        return response;
+    }
+
+    /**
+     * Flujo comun de generacion; onChunk es null cuando no se hace streaming
+     */
+    private SummaryResponse generate(User user, SummaryRequest request, Consumer<SummaryJob.Stage> progress,
+                                     Consumer<String> onChunk) {
         logger.info("Usuario {} solicita resumen para: {}", user.getUsername(), request.getVideoUrl());
 
         // 1. Verificar limite de peticiones
@@ -64,99 +165,469 @@ public class SummaryService {
 
         // 2. Normalizar URL del video
         String normalizedUrl = normalizeYouTubeUrl(request.getVideoUrl());
+        String videoId = extractVideoId(normalizedUrl);
 
-        // 3. Buscar en cache (resumen existente para esta URL e idioma)
-        Optional<Summary> cachedSummary = summaryRepository.findFirstByVideoUrlAndLanguageOrderByCreatedAtDesc(
-                normalizedUrl,
-                request.getLanguage()
+        // 3. Buscar en cache (L1 en memoria, luego base de datos) o generar;
+        //    la duracion del video solo se comprueba si hay que generarlo
+        SummaryKey key = new SummaryKey(
+                videoId,
+                request.getLanguage(),
+                request.getWordCountRange()
         );
+        SummaryContent content = findOrGenerate(key, normalizedUrl, request, user, progress, onChunk);
 
-        String summaryText;
-        String videoTitle;
-        int wordCount;
-
-        if (cachedSummary.isPresent()) {
-            // Usar resumen cacheado
-            logger.info("Resumen encontrado en cache para {}", normalizedUrl);
-            Summary cached = cachedSummary.get();
-            summaryText = cached.getSummaryText();
-            videoTitle = cached.getVideoTitle();
-            wordCount = cached.getWordCount();
-        } else {
-            // Generar nuevo resumen
-            logger.info("Generando nuevo resumen para {}", normalizedUrl);
+        // 4. Crear el resumen de este usuario apuntando al contenido compartido
+        Summary summary = Summary.create(user, normalizedUrl, content, videoDuration(videoId));
+
+        // 5. Guardar e incrementar contador de uso (transaccion corta)
+        int remainingRequests = summaryPersistenceService.saveAndChargeUsage(user, summary);
+
+        logger.info("Resumen guardado para usuario {}. Peticiones restantes: {}",
+                user.getUsername(), remainingRequests);
+
+        // 6. Retornar respuesta
+        return SummaryResponse.from(summary, remainingRequests);
+    }
+
+    /**
+     * Variante reactiva del flujo de generacion (summary.pipeline.mode=reactive)
+     * Las llamadas HTTP (yt-audio-api, subida y generacion en Gemini) no ocupan hilos mientras esperan;
+     * solo los accesos a base de datos y la division del MP3 pasan por boundedElastic
+     *
+     * @param user usuario que solicita el resumen
+     * @param request datos de la peticion
+     * @param progress recibe cada etapa del pipeline a medida que avanza
+     */
+    public Mono<SummaryResponse> generateSummaryReactive(User user, SummaryRequest request,
+                                                         Consumer<SummaryJob.Stage> progress) {
+        return Mono.fromCallable(() -> {
+                    logger.info("Usuario {} solicita resumen (reactivo) para: {}", user.getUsername(), request.getVideoUrl());
+
+                    // 1. Verificar limite de peticiones
+                    if (!rateLimitService.canMakeRequest(user)) {
+                        throw new RuntimeException(
+                                "Has alcanzado el limite de resumenes diarios. " +
+                                        "Limite: " + user.getDailyLimit() + " resumenes por dia."
+                        );
+                    }
+
+                    // 2. Normalizar URL del video
+                    return normalizeYouTubeUrl(request.getVideoUrl());
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(normalizedUrl -> {
+                    SummaryKey key = new SummaryKey(
+                            extractVideoId(normalizedUrl),
+                            request.getLanguage(),
+                            request.getWordCountRange()
+                    );
+
+                    // 3. Buscar en cache o generar (comprobando la duracion); 4-5. Guardar e incrementar uso
+                    return findOrGenerateReactive(key, normalizedUrl, request, user, progress)
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(content -> {
+                                Summary summary = Summary.create(user, normalizedUrl, content,
+                                        videoDuration(key.videoId()));
+                                int remainingRequests = summaryPersistenceService.saveAndChargeUsage(user, summary);
+
+                                logger.info("Resumen guardado para usuario {}. Peticiones restantes: {}",
+                                        user.getUsername(), remainingRequests);
+
+                                return SummaryResponse.from(summary, remainingRequests);
+                            });
+                });
+    }
+
+    private Mono<SummaryContent> findOrGenerateReactive(SummaryKey key, String normalizedUrl, SummaryRequest request,
+                                                        User user, Consumer<SummaryJob.Stage> progress) {
+        Optional<SummaryContent> l1Hit = summaryCache.get(key);
+        if (l1Hit.isPresent()) {
+            logger.info("Resumen encontrado en cache L1 para {}", normalizedUrl);
+            return Mono.just(l1Hit.get());
+        }
+
+        return Mono.fromCallable(() -> findContent(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(stored -> stored.map(Mono::just).orElseGet(() ->
+                        // Cada usuario comprueba su propio plan antes de unirse a la generacion
+                        Mono.fromRunnable(() -> videoMetadataService.checkDuration(user, key.videoId(), normalizedUrl))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(singleFlight.executeReactive(key, () ->
+                                        generateContentReactive(normalizedUrl, request, progress)
+                                                .publishOn(Schedulers.boundedElastic())
+                                                .map(generated -> storeContent(key, generated))))))
+                .doOnNext(content -> summaryCache.put(key, content));
+    }
+
+    private Mono<GeneratedSummary> generateContentReactive(String normalizedUrl, SummaryRequest request,
+                                                           Consumer<SummaryJob.Stage> progress) {
+        logger.info("Generando nuevo resumen (reactivo) para {}", normalizedUrl);
+
+        return obtainTranscriptReactive(normalizedUrl, request.getLanguage(), progress)
+                .flatMap(transcription -> {
+                    logger.info("PASO 3/3: Generando resumen con IA...");
+                    progress.accept(SummaryJob.Stage.SUMMARIZING);
+                    String videoTitle = extractVideoTitle(normalizedUrl);
+
+                    return reactiveGeminiService.summarizeTranscription(
+                                    transcription,
+                                    videoTitle,
+                                    request.getLanguage(),
+                                    request.getMinWords(),
+                                    request.getMaxWords())
+                            .map(summaryText -> new GeneratedSummary(videoTitle, summaryText, countWords(summaryText)));
+                })
+                .onErrorMap(this::translatePipelineError);
+    }
+
+    private Mono<String> obtainTranscriptReactive(String normalizedUrl, String language,
+                                                  Consumer<SummaryJob.Stage> progress) {
+        String videoId = extractVideoId(normalizedUrl);
+
+        return Mono.fromCallable(() -> transcriptRepository.findByVideoId(videoId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(stored -> {
+                    if (stored.isPresent()) {
+                        logger.info("Transcripcion encontrada para {}, se omite el audio", videoId);
+                        return Mono.just(stored.get().getTranscriptText());
+                    }
+
+                    return singleFlight.executeReactive("transcript:" + videoId, () ->
+                            (hasCaptions(videoId, normalizedUrl)
+                                    ? captionService.fetchCaptionsReactive(normalizedUrl, language)
+                                    : Mono.<CaptionService.Caption>empty())
+                                    .publishOn(Schedulers.boundedElastic())
+                                    .doOnNext(caption -> saveTranscript(videoId, caption.text(), caption.language()))
+                                    .map(CaptionService.Caption::text)
+                                    .switchIfEmpty(Mono.defer(() -> transcribeVideoReactive(normalizedUrl, language, progress)
+                                            .publishOn(Schedulers.boundedElastic())
+                                            .doOnNext(transcription -> saveTranscript(videoId, transcription, language)))));
+                });
+    }
 
-            Path audioFile = null;
+    /**
+     * Descarga y transcribe sin bloquear; el MP3 temporal se borra al terminar (o fallar)
+     * Como en el modo bloqueante, el hueco de audio se reserva antes de descargar y se libera
+     * cuando el archivo ya esta borrado
+     */
+    private Mono<String> transcribeVideoReactive(String normalizedUrl, String language,
+                                                 Consumer<SummaryJob.Stage> progress) {
+        return pipelineExecutor.withAudioSlotReactive(() -> Mono.usingWhen(
+                Mono.defer(() -> {
+                    logger.info("PASO 1/3: Descargando audio...");
+                    progress.accept(SummaryJob.Stage.DOWNLOADING);
+                    return reactiveAudioService.downloadAudio(normalizedUrl);
+                }),
+                audioFile -> {
+                    logger.info("PASO 2/3: Transcribiendo audio a texto...");
+                    progress.accept(SummaryJob.Stage.TRANSCRIBING);
+                    return reactiveTranscriptionService.transcribeAudio(audioFile, language);
+                },
+                audioFile -> Mono.fromRunnable(() -> audioService.cleanupAudioFile(audioFile))
+                        .subscribeOn(Schedulers.boundedElastic())
+        ));
+    }
+
+    /**
+     * Busca el contenido en la cache L1, despues en la base de datos, y si no existe lo genera
+     * La duracion del video solo se comprueba al generar: un resumen ya hecho no descarga nada
+     */
+    private SummaryContent findOrGenerate(SummaryKey key, String normalizedUrl, SummaryRequest request,
+                                          User user, Consumer<SummaryJob.Stage> progress,
+                                          Consumer<String> onChunk) {
+        Optional<SummaryContent> l1Hit = summaryCache.get(key);
+        if (l1Hit.isPresent()) {
+            logger.info("Resumen encontrado en cache L1 para {}", normalizedUrl);
+            return l1Hit.get();
+        }
+
+        SummaryContent content = findContent(key).orElseGet(() -> {
+            // Comprobar la duracion con el plan del usuario antes de descargar nada
+            videoMetadataService.checkDuration(user, key.videoId(), normalizedUrl);
+
+            // Generar nuevo resumen; peticiones identicas simultaneas comparten una sola ejecucion
+            return singleFlight.execute(key, () ->
+                    storeContent(key, generateContent(normalizedUrl, request, user.getUserType(), progress, onChunk)));
+        });
+
+        summaryCache.put(key, content);
+        return content;
+    }
+
+    private Optional<SummaryContent> findContent(SummaryKey key) {
+        Optional<SummaryContent> stored = summaryContentRepository.findByVideoIdAndLanguageAndWordCountRange(
+                key.videoId(),
+                key.language(),
+                key.wordCountRange()
+        );
+        stored.ifPresent(content -> logger.info("Resumen encontrado en cache para {}", key));
+        return stored;
+    }
+
+    /**
+     * Persiste el contenido generado; si otra instancia lo guardo a la vez, usa el suyo
+     */
+    private SummaryContent storeContent(SummaryKey key, GeneratedSummary generated) {
+        try {
+            return summaryPersistenceService.saveContent(key, generated);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Contenido de {} ya guardado por otra instancia", key);
+            return findContent(key).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Ejecuta el pipeline completo para un video: audio, transcripcion y resumen
+     * Los errores se traducen aqui para que todas las peticiones coalescidas reciban el mismo mensaje
+     * El tipo de usuario decide el orden en las colas de las etapas cuando estan llenas
+     */
+    private GeneratedSummary generateContent(String normalizedUrl, SummaryRequest request, User.UserType tier,
+                                             Consumer<SummaryJob.Stage> progress, Consumer<String> onChunk) {
+        logger.info("Generando nuevo resumen para {}", normalizedUrl);
+
+        try {
+            // Con streaming el resumen debe llegar por partes: solo el flujo de dos llamadas lo emite
+            if (singleCallEnabled && onChunk == null) {
+                Optional<GeneratedSummary> fromAudio = summarizeFromAudio(normalizedUrl, request, tier, progress);
+                if (fromAudio.isPresent()) {
+                    return fromAudio.get();
+                }
+            }
+
+            // Pasos 1 y 2: Obtener transcripcion (guardada o descargando y transcribiendo el audio)
+            String transcription = obtainTranscript(normalizedUrl, request.getLanguage(), tier, progress);
+
+            // Paso 3: Generar resumen
+            logger.info("PASO 3/3: Generando resumen con IA...");
+            progress.accept(SummaryJob.Stage.SUMMARIZING);
+            String videoTitle = extractVideoTitle(normalizedUrl);
+            String summaryText = pipelineExecutor.execute(PipelineExecutor.Stage.SUMMARIZE, tier, () ->
+                    onChunk == null
+                            ? geminiService.summarizeTranscription(
+                                    transcription,
+                                    videoTitle,
+                                    request.getLanguage(),
+                                    request.getMinWords(),
+                                    request.getMaxWords())
+                            : geminiService.streamSummary(
+                                    transcription,
+                                    videoTitle,
+                                    request.getLanguage(),
+                                    request.getMinWords(),
+                                    request.getMaxWords(),
+                                    onChunk)
+            );
+            int wordCount = countWords(summaryText);
+
+            logger.info("Resumen generado exitosamente: {} palabras", wordCount);
+            return new GeneratedSummary(videoTitle, summaryText, wordCount);
+
+        } catch (Exception e) {
+            throw translatePipelineError(e);
+        }
+    }
+
+    /**
+     * Traduce un error del pipeline a un mensaje para el usuario
+     */
+    private RuntimeException translatePipelineError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AdaptiveLimiter.CircuitOpenException) {
+                logger.warn("Llamada a la IA rechazada: {}", cause.getMessage());
+                return new RuntimeException("El servicio de IA no esta disponible temporalmente. Intenta de nuevo en unos minutos.");
+            }
+        }
+        if (e instanceof YouTubeAudioService.AudioDownloadException) {
+            logger.error("Error al descargar audio: {}", e.getMessage());
+            return new RuntimeException("No se pudo descargar el audio del video. Verifica que la URL sea valida y el video este disponible.");
+        }
+        if (e instanceof TranscriptionService.TranscriptionException) {
+            logger.error("Error al transcribir: {}", e.getMessage());
+            return new RuntimeException("No se pudo transcribir el audio. El video puede ser muy largo o el audio no es claro.");
+        }
+        if (e instanceof GeminiException geminiException) {
+            logger.error("Error de IA: {}", e.getMessage());
             try {
-                // Paso 1: Descargar audio
-                logger.info("PASO 1/3: Descargando audio...");
-                audioFile = audioService.downloadAudio(normalizedUrl);
-                logger.info("Audio descargado exitosamente");
+                handleGeminiError(geminiException);
+            } catch (RuntimeException translated) {
+                return translated;
+            }
+            return geminiException;
+        }
+        if (e instanceof PipelineExecutor.PipelineSaturatedException saturated) {
+            logger.warn("Pipeline saturado: {}", e.getMessage());
+            return saturated;
+        }
+        logger.error("Error inesperado al generar resumen: {}", e.getMessage(), e);
+        return new RuntimeException("Error al generar resumen: " + e.getMessage());
+    }
 
-                // Paso 2: Transcribir audio
-                logger.info("PASO 2/3: Transcribiendo audio a texto...");
-                String transcription = transcriptionService.transcribeAudio(audioFile, request.getLanguage());
-                logger.info("Transcripcion completada: {} caracteres", transcription.length());
+    /**
+     * Obtiene la transcripcion del video, reutilizando la guardada si existe
+     * Asi un resumen en otro idioma o rango de palabras solo cuesta la llamada de texto a la IA.
+     * Si no hay transcripcion guardada se prueba con los subtitulos del video y solo sin ellos se transcribe el audio
+     */
+    private String obtainTranscript(String normalizedUrl, String language, User.UserType tier,
+                                    Consumer<SummaryJob.Stage> progress) {
+        String videoId = extractVideoId(normalizedUrl);
+
+        Optional<Transcript> stored = transcriptRepository.findByVideoId(videoId);
+        if (stored.isPresent()) {
+            logger.info("Transcripcion encontrada para {} ({} caracteres), se omite el audio",
+                    videoId, stored.get().getCharacterCount());
+            return stored.get().getTranscriptText();
+        }
+
+        // Distintos idiomas del mismo video comparten una sola transcripcion en curso
+        String transcription = singleFlight.execute("transcript:" + videoId, () -> {
+            Optional<CaptionService.Caption> caption = hasCaptions(videoId, normalizedUrl)
+                    ? captionService.fetchCaptions(normalizedUrl, language)
+                    : Optional.empty();
+            if (caption.isPresent()) {
+                saveTranscript(videoId, caption.get().text(), caption.get().language());
+                return caption.get().text();
+            }
+
+            String transcribed = transcribeVideo(videoId, normalizedUrl, language, tier, progress);
+            saveTranscript(videoId, transcribed, language);
+            return transcribed;
+        });
+
+        // La ejecucion en curso era un resumen directo del audio que no dejo transcripcion: se obtiene ahora
+        return transcription != null
+                ? transcription
+                : obtainTranscript(normalizedUrl, language, tier, progress);
+    }
+
+    /**
+     * Guarda la transcripcion para reutilizarla en futuros resumenes
+     * Un fallo al guardar no debe perder el resumen ya en curso
+     */
+    private void saveTranscript(String videoId, String transcription, String language) {
+        try {
+            transcriptRepository.save(Transcript.create(videoId, transcription, language));
+            logger.info("Transcripcion guardada para {}", videoId);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Transcripcion de {} ya guardada por otra peticion", videoId);
+        } catch (Exception e) {
+            logger.warn("No se pudo guardar la transcripcion de {}: {}", videoId, e.getMessage());
+        }
+    }
+
+    /**
+     * Modo de una sola llamada: el audio va a Gemini con el prompt de resumen, sin transcribirlo antes
+     * Solo se usa cuando habria que transcribir el audio (sin transcripcion guardada ni subtitulos) y este
+     * cabe en una peticion; si no, devuelve vacio y se sigue el flujo de dos llamadas.
+     * Comparte la clave de obtainTranscript: otros idiomas o rangos del mismo video esperan a que termine
+     * y resumen la transcripcion guardada en vez de enviar otra vez el audio
+     */
+    private Optional<GeneratedSummary> summarizeFromAudio(String normalizedUrl, SummaryRequest request,
+                                                          User.UserType tier, Consumer<SummaryJob.Stage> progress) {
+        String videoId = extractVideoId(normalizedUrl);
+
+        if (transcriptRepository.findByVideoId(videoId).isPresent()) {
+            return Optional.empty();
+        }
+
+        // Solo quien ejecuta el trabajo recibe el resumen; quien se une sigue el flujo normal
+        AtomicReference<GeneratedSummary> fromAudio = new AtomicReference<>();
+        singleFlight.execute("transcript:" + videoId, () -> {
+            if (hasCaptions(videoId, normalizedUrl)) {
+                Optional<CaptionService.Caption> caption = captionService.fetchCaptions(normalizedUrl, request.getLanguage());
+                if (caption.isPresent()) {
+                    // El flujo normal la encuentra guardada y solo hace la llamada de texto
+                    saveTranscript(videoId, caption.get().text(), caption.get().language());
+                    return caption.get().text();
+                }
+            }
+
+            String videoTitle = extractVideoTitle(normalizedUrl);
+            TranscriptionService.AudioSummary result =
+                    summarizeAudio(videoId, normalizedUrl, videoTitle, request, tier, progress);
+            if (result == null) {
+                return null;
+            }
+
+            fromAudio.set(new GeneratedSummary(videoTitle, result.summary(), countWords(result.summary())));
+            if (result.transcript() != null) {
+                saveTranscript(videoId, result.transcript(), result.language());
+            }
+            return result.transcript();
+        });
 
-                // Paso 3: Generar resumen
-                logger.info("PASO 3/3: Generando resumen con IA...");
-                videoTitle = extractVideoTitle(normalizedUrl);
-                summaryText = geminiService.summarizeTranscription(
-                        transcription,
+        GeneratedSummary generated = fromAudio.get();
+        if (generated != null) {
+            logger.info("Resumen generado del audio en una llamada: {} palabras", generated.wordCount());
+        }
+        return Optional.ofNullable(generated);
+    }
+
+    /**
+     * Descarga el audio y lo resume en una sola llamada; null si es demasiado grande para ello
+     */
+    private TranscriptionService.AudioSummary summarizeAudio(String videoId, String normalizedUrl, String videoTitle,
+                                                             SummaryRequest request, User.UserType tier,
+                                                             Consumer<SummaryJob.Stage> progress) {
+        try (PipelineExecutor.AudioSlot audioSlot = pipelineExecutor.acquireAudioSlot(tier)) {
+            logger.info("PASO 1/2: Descargando audio...");
+            progress.accept(SummaryJob.Stage.DOWNLOADING);
+            AudioStore.Lease audio = pipelineExecutor.execute(PipelineExecutor.Stage.DOWNLOAD, tier, () ->
+                    audioStore.acquire(videoId, () -> audioService.downloadAudio(normalizedUrl))
+            );
+
+            try (audio) {
+                // Audio largo: se transcribe por partes (el audio queda en el almacen local para ese paso)
+                if (!transcriptionService.fitsSingleRequest(audio.getPath())) {
+                    logger.info("Audio de {} demasiado grande para una sola llamada, se transcribe por partes", videoId);
+                    return null;
+                }
+
+                logger.info("PASO 2/2: Generando resumen con IA directamente del audio...");
+                progress.accept(SummaryJob.Stage.SUMMARIZING);
+                String prompt = geminiService.buildAudioSummaryPrompt(
                         videoTitle,
                         request.getLanguage(),
                         request.getMinWords(),
-                        request.getMaxWords()
+                        request.getMaxWords(),
+                        singleCallIncludeTranscript);
+
+                return pipelineExecutor.execute(PipelineExecutor.Stage.TRANSCRIBE, tier, () ->
+                        transcriptionService.summarizeAudio(audio.getPath(), prompt, singleCallIncludeTranscript)
                 );
-                wordCount = countWords(summaryText);
-
-                logger.info("Resumen generado exitosamente: {} palabras", wordCount);
-
-            } catch (YouTubeAudioService.AudioDownloadException e) {
-                logger.error("Error al descargar audio: {}", e.getMessage());
-                throw new RuntimeException("No se pudo descargar el audio del video. Verifica que la URL sea valida y el video este disponible.");
-            } catch (TranscriptionService.TranscriptionException e) {
-                logger.error("Error al transcribir: {}", e.getMessage());
-                throw new RuntimeException("No se pudo transcribir el audio. El video puede ser muy largo o el audio no es claro.");
-            } catch (GeminiException e) {
-                logger.error("Error de IA: {}", e.getMessage());
-                handleGeminiError(e);
-                throw e;
-            } catch (Exception e) {
-                logger.error("Error inesperado al generar resumen: {}", e.getMessage(), e);
-                throw new RuntimeException("Error al generar resumen: " + e.getMessage());
-            } finally {
-                // Limpiar archivo de audio temporal
-                if (audioFile != null) {
-                    audioService.cleanupAudioFile(audioFile);
-                }
             }
+        } catch (IOException e) {
+            throw new TranscriptionService.TranscriptionException("Error al leer el audio: " + e.getMessage(), e);
         }
+    }
 
-        // 4. Crear y guardar el resumen para este usuario
-        Summary summary = Summary.create(
-                user,
-                normalizedUrl,
-                videoTitle,
-                summaryText,
-                request.getLanguage(),
-                wordCount,
-                null
-        );
-
-        summaryRepository.save(summary);
-
-        // 5. Incrementar contador de uso
-        rateLimitService.incrementUsage(user);
+    /**
+     * Obtiene el audio (del almacen local o descargandolo) y lo transcribe, cada paso en su etapa del pipeline
+     * El hueco de audio se mantiene hasta terminar la transcripcion, para limitar los audios en proceso
+     */
+    private String transcribeVideo(String videoId, String normalizedUrl, String language, User.UserType tier,
+                                   Consumer<SummaryJob.Stage> progress) {
+        try (PipelineExecutor.AudioSlot audioSlot = pipelineExecutor.acquireAudioSlot(tier)) {
+            // Paso 1: Descargar audio
+            logger.info("PASO 1/3: Descargando audio...");
+            progress.accept(SummaryJob.Stage.DOWNLOADING);
+            AudioStore.Lease audio = pipelineExecutor.execute(PipelineExecutor.Stage.DOWNLOAD, tier, () ->
+                    audioStore.acquire(videoId, () -> audioService.downloadAudio(normalizedUrl))
+            );
 
-        // 6. Obtener peticiones restantes
-        int remainingRequests = rateLimitService.getRemainingRequests(user);
+            try (audio) {
+                logger.info("Audio disponible: {}", audio.getPath().getFileName());
 
-        logger.info("Resumen guardado para usuario {}. Peticiones restantes: {}",
-                user.getUsername(), remainingRequests);
+                // Paso 2: Transcribir audio
+                logger.info("PASO 2/3: Transcribiendo audio a texto...");
+                progress.accept(SummaryJob.Stage.TRANSCRIBING);
+                String transcription = pipelineExecutor.execute(PipelineExecutor.Stage.TRANSCRIBE, tier, () ->
+                        transcriptionService.transcribeAudio(audio.getPath(), language)
+                );
+                logger.info("Transcripcion completada: {} caracteres", transcription.length());
 
-        // 7. Retornar respuesta
-        return SummaryResponse.from(summary, remainingRequests);
+                return transcription;
+            }
+        }
     }
 
     /**
@@ -193,11 +664,32 @@ public class SummaryService {
     }
 
     /**
-     * Extrae el titulo del video
+     * Titulo real del video (normalmente ya en la cache de datos del video por la comprobacion de duracion)
      */
     private String extractVideoTitle(String url) {
         String videoId = extractVideoId(url);
-        return "Video de YouTube - " + videoId;
+        return videoMetadataService.getMetadata(videoId, url)
+                .map(VideoMetadataService.VideoMetadata::title)
+                .orElse("Video de YouTube - " + videoId);
+    }
+
+    /**
+     * Duracion del video si sus datos estan en cache (siempre tras generar); un resumen ya hecho
+     * no llama a yt-audio-api solo para rellenarla
+     */
+    private Integer videoDuration(String videoId) {
+        return videoMetadataService.getCachedMetadata(videoId)
+                .map(VideoMetadataService.VideoMetadata::durationSeconds)
+                .orElse(null);
+    }
+
+    /**
+     * Sin datos del video se prueba igualmente con los subtitulos
+     */
+    private boolean hasCaptions(String videoId, String url) {
+        return videoMetadataService.getMetadata(videoId, url)
+                .map(VideoMetadataService.VideoMetadata::hasCaptions)
+                .orElse(true);
     }
 
     /**
@@ -2,18 +2,46 @@ package com.youtubesummarizer.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Servicio para transcribir audio a texto usando Gemini REST API
@@ -23,22 +51,108 @@ public class TranscriptionService {
 
     private static final Logger logger = LoggerFactory.getLogger(TranscriptionService.class);
 
+    static final String UPLOAD_URL = "https://generativelanguage.googleapis.com/upload/v1beta/files";
+    static final String GENERATE_URL =
+            "https://generativelanguage.googleapis.com/v1beta/models/gemini-3-flash-preview:generateContent";
+
+    // Limite de tamaño por archivo subido (el audio completo o cada parte)
+    static final long MAX_UPLOAD_BYTES = 20 * 1024 * 1024;
+
+    private static final long UPLOAD_GRANULARITY = 256 * 1024;
+
+    // Respuesta estructurada del modo de una sola llamada: resumen, transcripcion literal e idioma hablado
+    private static final Map<String, Object> AUDIO_SUMMARY_SCHEMA = Map.of(
+            "type", "OBJECT",
+            "properties", Map.of(
+                    "summary", Map.of("type", "STRING"),
+                    "transcript", Map.of("type", "STRING"),
+                    "language", Map.of("type", "STRING")
+            ),
+            "required", List.of("summary", "transcript", "language"),
+            "propertyOrdering", List.of("summary", "transcript", "language")
+    );
+
     @Value("${gemini.api.key}")
     private String geminiApiKey;
 
-    private final RestTemplate restTemplate;
+    @Value("${transcription.segment-minutes:10}")
+    private int segmentMinutes;
+
+    @Value("${transcription.max-parallel-segments:3}")
+    private int maxParallelSegments;
+
+    // Bytes por bloque en la subida resumible (se redondea a multiplo de 256 KiB)
+    @Value("${transcription.upload.chunk-bytes:8388608}")
+    private long uploadChunkSize;
+
+    // Reintentos seguidos sin que el servidor confirme bytes nuevos; se reinicia cada vez que la subida avanza
+    @Value("${transcription.upload.max-retries:5}")
+    private int uploadMaxRetries;
+
+    // Espera antes del primer reintento; se duplica en cada reintento seguido (hasta 30 s)
+    @Value("${transcription.upload.retry-backoff-ms:500}")
+    private long uploadRetryBackoffMs;
+
+    // Audios de hasta este tamaño van en base64 dentro de generateContent, sin Files API (0 lo desactiva)
+    @Value("${transcription.inline.max-bytes:1048576}")
+    private long inlineMaxBytes;
+
+    @Autowired
+    private Mp3FrameSplitter mp3FrameSplitter;
+
+    @Autowired
+    private GeminiFileCache geminiFileCache;
+
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    @Autowired
+    private AdaptiveLimiter adaptiveLimiter;
+
+    // Cliente con pool de conexiones compartido (HttpClientConfig)
+    @Autowired
+    private RestTemplate restTemplate;
+
     private final ObjectMapper objectMapper;
 
+    // Hilos para transcribir en paralelo las partes de un audio largo
+    private ExecutorService segmentExecutor;
+
+    // Metricas de subida por bloques
+    private final AtomicLong uploadedChunks = new AtomicLong(0);
+    private final AtomicLong uploadedBytes = new AtomicLong(0);
+    private final AtomicLong chunkTimeMs = new AtomicLong(0);
+    private final AtomicLong maxChunkTimeMs = new AtomicLong(0);
+    private final AtomicLong uploadRetries = new AtomicLong(0);
+    private final AtomicLong inlineRequests = new AtomicLong(0);
+    private final AtomicLong inlineBytes = new AtomicLong(0);
+
     public TranscriptionService() {
-        this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
     }
 
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger(1);
+        segmentExecutor = Executors.newFixedThreadPool(maxParallelSegments, runnable -> {
+            Thread thread = new Thread(runnable, "transcription-segment-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        segmentExecutor.shutdownNow();
+    }
+
     /**
      * Transcribe un archivo de audio MP3 a texto
+     * Audios largos se dividen en partes de segmentMinutes que se transcriben en paralelo
+     * y se unen en orden
      */
     public String transcribeAudio(Path audioFile, String language) {
-        String fileUri = null;
+        List<Path> segments = List.of();
 
         try {
             logger.info("Iniciando transcripcion de audio: {}", audioFile.getFileName());
@@ -47,29 +161,13 @@ public class TranscriptionService {
                 throw new TranscriptionException("El archivo de audio no existe");
             }
 
-            long fileSize = Files.size(audioFile);
-            long maxSize = 20 * 1024 * 1024;
-
-            if (fileSize > maxSize) {
-                throw new TranscriptionException(
-                        String.format("Archivo muy grande (%.2f MB). Maximo: 20 MB",
-                                fileSize / (1024.0 * 1024.0))
-                );
-            }
-
-            logger.info("Tamaño: %.2f MB", fileSize / (1024.0 * 1024.0));
-
-            // Paso 1: Iniciar sesion de subida resumible
-            logger.info("Paso 1: Iniciando subida...");
-            String uploadUrl = initiateResumableUpload(audioFile, fileSize);
+            logger.info("Tamaño: {} MB", String.format("%.2f", Files.size(audioFile) / (1024.0 * 1024.0)));
 
-            // Paso 2: Subir el archivo
-            logger.info("Paso 2: Subiendo archivo...");
-            fileUri = uploadFile(uploadUrl, audioFile, fileSize);
+            segments = mp3FrameSplitter.split(audioFile, segmentMinutes * 60);
 
-            // Paso 3: Generar transcripcion
-            logger.info("Paso 3: Generando transcripcion...");
-            String transcription = generateTranscription(fileUri, language);
+            String transcription = segments.size() == 1
+                    ? transcribeSegment(segments.get(0), language)
+                    : transcribeSegments(segments, language);
 
             logger.info("Transcripcion completada: {} caracteres", transcription.length());
 
@@ -78,9 +176,208 @@ public class TranscriptionService {
         } catch (IOException e) {
             logger.error("Error al leer archivo: {}", e.getMessage());
             throw new TranscriptionException("Error al leer archivo: " + e.getMessage());
+        } catch (TranscriptionException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error en transcripcion: {}", e.getMessage(), e);
-            throw new TranscriptionException("Error al transcribir: " + e.getMessage());
+            throw new TranscriptionException("Error al transcribir: " + e.getMessage(), e);
+        } finally {
+            segments.stream()
+                    .filter(segment -> !segment.equals(audioFile))
+                    .forEach(this::deleteSegment);
+        }
+    }
+
+    /**
+     * Transcribe las partes en paralelo (como mucho maxParallelSegments a la vez) y las une en orden
+     * Si una parte falla se cancelan las demas y se espera a que dejen de leer sus archivos,
+     * porque transcribeAudio los borra al volver
+     */
+    private String transcribeSegments(List<Path> segments, String language) {
+        long start = System.currentTimeMillis();
+
+        // Cada parte se reclama una sola vez: o la empieza su hilo o la descarta la cancelacion
+        List<AtomicBoolean> claims = new ArrayList<>();
+        CountDownLatch finished = new CountDownLatch(segments.size());
+        List<Future<String>> futures = new ArrayList<>();
+        for (Path segment : segments) {
+            AtomicBoolean claimed = new AtomicBoolean(false);
+            claims.add(claimed);
+            futures.add(segmentExecutor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return transcribeSegment(segment, language);
+                } finally {
+                    finished.countDown();
+                }
+            }));
+        }
+
+        List<String> parts = new ArrayList<>();
+        try {
+            for (Future<String> future : futures) {
+                parts.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            cancelAndAwait(futures, claims, finished);
+            Throwable cause = e.getCause();
+            throw new TranscriptionException("Error al transcribir una parte del audio: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            cancelAndAwait(futures, claims, finished);
+            Thread.currentThread().interrupt();
+            throw new TranscriptionException("Transcripcion interrumpida");
+        }
+
+        logger.info("{} partes transcritas en {} ms", segments.size(), System.currentTimeMillis() - start);
+        return String.join("\n\n", parts);
+    }
+
+    /**
+     * Cancela las partes pendientes y espera a que terminen las que ya estaban en curso
+     * Una subida en curso no se corta al interrumpir el hilo: se detiene antes del siguiente bloque
+     */
+    private void cancelAndAwait(List<Future<String>> futures, List<AtomicBoolean> claims, CountDownLatch finished) {
+        for (int i = 0; i < futures.size(); i++) {
+            if (claims.get(i).compareAndSet(false, true)) {
+                finished.countDown();
+            }
+            futures.get(i).cancel(true);
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sube y transcribe un unico archivo (el audio completo o una parte)
+     */
+    private String transcribeSegment(Path segment, String language) throws Exception {
+        return withAudioPart(segment, (partType, audioData, audioBytes) ->
+                requestTranscription(buildTranscriptionRequest(partType, audioData, language), audioBytes));
+    }
+
+    /**
+     * Resume el audio en una sola llamada, sin transcribirlo antes (summary.single-call.enabled)
+     * Con includeTranscript la respuesta es JSON con el resumen y la transcripcion literal
+     *
+     * @param audioFile audio completo del video (hasta 20 MB)
+     * @param prompt prompt de resumen para audio (GeminiService.buildAudioSummaryPrompt)
+     * @param includeTranscript pedir tambien la transcripcion como segundo campo
+     * @return resumen y, si se pidio, transcripcion con su idioma
+     */
+    public AudioSummary summarizeAudio(Path audioFile, String prompt, boolean includeTranscript) {
+        try {
+            return withAudioPart(audioFile, (partType, audioData, audioBytes) -> {
+                Map<String, Object> body = buildAudioPromptRequest(prompt, partType, audioData);
+                if (includeTranscript) {
+                    body.put("generationConfig", Map.of(
+                            "responseMimeType", "application/json",
+                            "responseSchema", AUDIO_SUMMARY_SCHEMA
+                    ));
+                }
+                return parseAudioSummary(requestGeneration("audio-summary", audioBytes, body), includeTranscript);
+            });
+        } catch (TranscriptionException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error al resumir el audio: {}", e.getMessage(), e);
+            throw new TranscriptionException("Error al resumir el audio: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Indica si el audio cabe en una sola peticion (inline o un unico archivo subido)
+     */
+    public boolean fitsSingleRequest(Path audioFile) throws IOException {
+        return Files.size(audioFile) <= MAX_UPLOAD_BYTES;
+    }
+
+    /**
+     * Resumen generado directamente del audio; transcript es null si no se pidio
+     * y language (codigo ISO 639-1 del idioma hablado) es null si la IA no lo indico
+     */
+    public record AudioSummary(String summary, String transcript, String language) {
+    }
+
+    /**
+     * Llamada a Gemini con el audio como parte del contenido
+     */
+    @FunctionalInterface
+    private interface AudioCall<T> {
+        T call(String partType, Map<String, String> audioData, long audioBytes) throws Exception;
+    }
+
+    /**
+     * Ejecuta la llamada con el archivo ya subido (si esta en cache), con el audio en linea (si es corto)
+     * o subiendolo antes a la Files API
+     */
+    private <T> T withAudioPart(Path segment, AudioCall<T> call) throws Exception {
+        long fileSize = Files.size(segment);
+
+        if (fileSize > MAX_UPLOAD_BYTES) {
+            throw new TranscriptionException(
+                    String.format("Parte de audio muy grande (%.2f MB). Maximo: 20 MB",
+                            fileSize / (1024.0 * 1024.0))
+            );
+        }
+
+        // Si los mismos bytes ya se subieron (otro idioma, reintento) se reutiliza el archivo en Gemini
+        String hash = geminiFileCache.hash(segment);
+        Optional<String> cachedUri = geminiFileCache.get(hash);
+
+        if (cachedUri.isPresent()) {
+            try {
+                logger.info("Audio {} ya subido a Gemini, reutilizando archivo", segment.getFileName());
+                return call.call("file_data", fileData(cachedUri.get()), fileSize);
+            } catch (HttpClientErrorException.Forbidden | HttpClientErrorException.NotFound e) {
+                // Archivo borrado o caducado en Gemini: se vuelve a subir
+                // Cualquier otro error (429, prompt invalido...) se propaga y la entrada sigue valida
+                logger.warn("Archivo en cache no valido ({}), volviendo a subir", e.getStatusCode());
+                geminiFileCache.invalidate(hash);
+            }
+        }
+
+        // Audio corto (y no subido antes): una sola llamada con el audio en linea en vez de iniciar, subir y generar
+        if (fileSize <= inlineMaxBytes) {
+            logger.info("Enviando {} en linea ({} bytes)...", segment.getFileName(), fileSize);
+            inlineRequests.incrementAndGet();
+            inlineBytes.addAndGet(fileSize);
+            return call.call("inline_data", inlineData(Files.readAllBytes(segment)), fileSize);
+        }
+
+        // Paso 1: Iniciar sesion de subida resumible
+        logger.info("Paso 1: Iniciando subida de {}...", segment.getFileName());
+        UploadedFile uploadedFile = dependencyLimiter.call(DependencyLimiter.Dependency.GEMINI_UPLOAD, () -> {
+            String uploadUrl = initiateResumableUpload(segment, fileSize);
+
+            // Paso 2: Subir el archivo
+            logger.info("Paso 2: Subiendo {}...", segment.getFileName());
+            return uploadFile(uploadUrl, segment, fileSize);
+        });
+        geminiFileCache.put(hash, uploadedFile.uri(), uploadedFile.expirationTime());
+
+        // Paso 3: Generar con el archivo subido
+        logger.info("Paso 3: Generando a partir de {}...", segment.getFileName());
+        return call.call("file_data", fileData(uploadedFile.uri()), fileSize);
+    }
+
+    private void deleteSegment(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar parte de audio: {}", e.getMessage());
         }
     }
 
@@ -88,8 +385,6 @@ public class TranscriptionService {
      * Paso 1: Inicia la sesion de subida resumible
      */
     private String initiateResumableUpload(Path audioFile, long fileSize) throws Exception {
-        String url = "https://generativelanguage.googleapis.com/upload/v1beta/files";
-
         HttpHeaders headers = new HttpHeaders();
         headers.set("x-goog-api-key", geminiApiKey);
         headers.set("X-Goog-Upload-Protocol", "resumable");
@@ -106,7 +401,7 @@ public class TranscriptionService {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
 
         ResponseEntity<String> response = restTemplate.exchange(
-                url,
+                UPLOAD_URL,
                 HttpMethod.POST,
                 request,
                 String.class
@@ -124,50 +419,307 @@ public class TranscriptionService {
     }
 
     /**
-     * Paso 2: Sube el archivo usando la URL resumible
+     * Paso 2: Sube el archivo por bloques usando la URL resumible
+     * Si un bloque falla se consulta al servidor cuantos bytes tiene confirmados y se continua
+     * desde ese offset, en vez de repetir la subida completa. Los reintentos esperan cada vez
+     * mas y solo se cuentan mientras la subida no avanza.
      */
-    private String uploadFile(String uploadUrl, Path audioFile, long fileSize) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Content-Length", String.valueOf(fileSize));
-        headers.set("X-Goog-Upload-Offset", "0");
-        headers.set("X-Goog-Upload-Command", "upload, finalize");
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+    private UploadedFile uploadFile(String uploadUrl, Path audioFile, long fileSize) throws Exception {
+        long offset = 0;
+        int retries = 0;
+
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Parte cancelada porque otra fallo: no se sube el siguiente bloque
+                throw new InterruptedException("Subida cancelada en el offset " + offset);
+            }
+            long length = Math.min(uploadChunkBytes(), fileSize - offset);
+            boolean lastChunk = offset + length >= fileSize;
+
+            try {
+                String responseBody = uploadChunk(uploadUrl, audioFile, offset, length, lastChunk);
+
+                if (lastChunk) {
+                    return parseUploadedFile(responseBody);
+                }
+                offset += length;
+                retries = 0;
+
+            } catch (RestClientException | IOException e) {
+                if (!isRetryableUploadError(e)) {
+                    throw new TranscriptionException("Subida rechazada en el offset " + offset + ": " + e.getMessage(), e);
+                }
+                logger.warn("Fallo al subir bloque en offset {} ({}). Consultando estado de la subida...",
+                        offset, e.getMessage());
+
+                UploadStatus status = null;
+                Exception lastError = e;
+                while (status == null) {
+                    if (++retries > uploadMaxRetries) {
+                        throw new TranscriptionException("Subida interrumpida en el offset " + offset + " tras "
+                                + uploadMaxRetries + " reintentos sin avanzar: " + lastError.getMessage(), lastError);
+                    }
+                    recordUploadRetry();
+                    Thread.sleep(retryBackoffMs(retries));
+
+                    try {
+                        status = queryUploadStatus(uploadUrl);
+                    } catch (RestClientException | TranscriptionException queryError) {
+                        if (!isRetryableUploadError(queryError)) {
+                            // Sesion de subida caducada o no valida: no se va a recuperar reintentando
+                            throw new TranscriptionException("Subida rechazada al consultar su estado: "
+                                    + queryError.getMessage(), queryError);
+                        }
+                        logger.warn("No se pudo consultar el estado de la subida ({})", queryError.getMessage());
+                        lastError = queryError;
+                    }
+                }
+
+                if (status.finalized()) {
+                    return parseUploadedFile(status.body());
+                }
+
+                if (status.bytesReceived() > offset) {
+                    // El servidor confirmo bytes del bloque fallido: la subida avanza
+                    retries = 0;
+                }
+                logger.info("Reanudando subida desde offset {} de {}", status.bytesReceived(), fileSize);
+                offset = status.bytesReceived();
+            }
+        }
+    }
+
+    /**
+     * Errores de E/S, 5xx y 429 pueden ser transitorios; cualquier otro 4xx (offset no valido,
+     * sesion de subida caducada) se repetiria igual en cada reintento
+     */
+    private static boolean isRetryableUploadError(Exception e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            return clientError.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return true;
+    }
+
+    /**
+     * Espera antes del reintento numero retry (compartido con ReactiveTranscriptionService)
+     */
+    long retryBackoffMs(int retry) {
+        return Math.min(30_000, uploadRetryBackoffMs << Math.min(retry - 1, 16));
+    }
+
+    int uploadMaxRetries() {
+        return uploadMaxRetries;
+    }
 
-        byte[] audioBytes = Files.readAllBytes(audioFile);
+    void recordUploadRetry() {
+        uploadRetries.incrementAndGet();
+    }
+
+    /**
+     * Cuenta un bloque subido en las estadisticas (tambien los de ReactiveTranscriptionService)
+     */
+    void recordUploadedChunk(long length, long elapsedMs) {
+        uploadedChunks.incrementAndGet();
+        uploadedBytes.addAndGet(length);
+        chunkTimeMs.addAndGet(elapsedMs);
+        maxChunkTimeMs.accumulateAndGet(elapsedMs, Math::max);
+    }
+
+    /**
+     * Envia un bloque [offset, offset + length) leyendolo del archivo en streaming
+     */
+    private String uploadChunk(String uploadUrl, Path audioFile, long offset, long length,
+                               boolean lastChunk) throws IOException {
+        long start = System.currentTimeMillis();
+
+        RequestCallback streamChunk = request -> {
+            HttpHeaders headers = request.getHeaders();
+            headers.setContentLength(length);
+            headers.set("X-Goog-Upload-Offset", String.valueOf(offset));
+            headers.set("X-Goog-Upload-Command", lastChunk ? "upload, finalize" : "upload");
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(outputStream -> copyRange(audioFile, offset, length, outputStream));
+            } else {
+                copyRange(audioFile, offset, length, request.getBody());
+            }
+        };
+
+        String responseBody = restTemplate.execute(
+                uploadUrl,
+                HttpMethod.POST,
+                streamChunk,
+                response -> StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8)
+        );
+
+        long elapsed = System.currentTimeMillis() - start;
+        recordUploadedChunk(length, elapsed);
+        logger.debug("Bloque subido: offset={}, {} bytes en {} ms", offset, length, elapsed);
+
+        return responseBody;
+    }
 
-        HttpEntity<byte[]> request = new HttpEntity<>(audioBytes, headers);
+    /**
+     * Consulta cuantos bytes ha confirmado el servidor para una subida resumible
+     */
+    private UploadStatus queryUploadStatus(String uploadUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Goog-Upload-Command", "query");
 
         ResponseEntity<String> response = restTemplate.exchange(
                 uploadUrl,
                 HttpMethod.POST,
-                request,
+                new HttpEntity<>(headers),
                 String.class
         );
 
-        // Parsear respuesta para obtener file_uri
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+        String status = response.getHeaders().getFirst("X-Goog-Upload-Status");
+        String received = response.getHeaders().getFirst("X-Goog-Upload-Size-Received");
+
+        if ("final".equalsIgnoreCase(status)) {
+            return new UploadStatus(true, 0, response.getBody());
+        }
+
+        if (received == null) {
+            throw new TranscriptionException("No se pudo consultar el estado de la subida");
+        }
+
+        try {
+            return new UploadStatus(false, Long.parseLong(received.trim()), null);
+        } catch (NumberFormatException e) {
+            throw new TranscriptionException("Estado de la subida no valido: " + received);
+        }
+    }
+
+    private UploadedFile parseUploadedFile(String responseBody) throws IOException {
+        // Parsear respuesta para obtener file_uri y su caducidad
+        JsonNode jsonResponse = objectMapper.readTree(responseBody);
         String fileUri = jsonResponse.path("file").path("uri").asText();
 
         if (fileUri == null || fileUri.isEmpty()) {
             throw new TranscriptionException("No se recibio URI del archivo");
         }
 
+        Instant expirationTime = null;
+        String expiration = jsonResponse.path("file").path("expirationTime").asText("");
+        if (!expiration.isEmpty()) {
+            try {
+                expirationTime = Instant.parse(expiration);
+            } catch (DateTimeParseException e) {
+                logger.debug("Caducidad de archivo no reconocida: {}", expiration);
+            }
+        }
+
         logger.debug("Archivo subido. URI: {}", fileUri);
-        return fileUri;
+        return new UploadedFile(fileUri, expirationTime);
+    }
+
+    /**
+     * Copia un rango del archivo al flujo de salida sin cargarlo en memoria
+     */
+    private void copyRange(Path file, long offset, long length, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long sent = 0;
+            while (sent < length) {
+                sent += channel.transferTo(offset + sent, length - sent, target);
+            }
+        }
+    }
+
+    /**
+     * Tamaño de bloque ajustado a un multiplo de 256 KiB (lo exige el protocolo resumible)
+     */
+    long uploadChunkBytes() {
+        long chunks = Math.max(1, uploadChunkSize / UPLOAD_GRANULARITY);
+        return chunks * UPLOAD_GRANULARITY;
+    }
+
+    /**
+     * Estadisticas de subida por bloques (para monitorizacion)
+     */
+    public Map<String, Object> getUploadStats() {
+        long chunks = uploadedChunks.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("chunkBytes", uploadChunkBytes());
+        stats.put("chunksUploaded", chunks);
+        stats.put("bytesUploaded", uploadedBytes.get());
+        stats.put("avgChunkTimeMs", chunks == 0 ? 0 : chunkTimeMs.get() / chunks);
+        stats.put("maxChunkTimeMs", maxChunkTimeMs.get());
+        stats.put("retries", uploadRetries.get());
+        stats.put("inlineMaxBytes", inlineMaxBytes);
+        stats.put("inlineRequests", inlineRequests.get());
+        stats.put("inlineBytes", inlineBytes.get());
+        return stats;
+    }
+
+    /**
+     * Archivo subido a Gemini y su caducidad (null si no se informo)
+     */
+    private record UploadedFile(String uri, Instant expirationTime) {
+    }
+
+    /**
+     * Respuesta a la consulta de estado de una subida
+     */
+    private record UploadStatus(boolean finalized, long bytesReceived, String body) {
     }
 
     /**
-     * Paso 3: Genera la transcripcion usando el archivo subido
+     * Paso 3: Genera la transcripcion (con el archivo subido o el audio en linea)
      */
-    private String generateTranscription(String fileUri, String language) throws Exception {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-3-flash-preview:generateContent";
+    private String requestTranscription(Map<String, Object> body, long audioBytes) throws Exception {
+        return parseTranscription(requestGeneration("transcription", audioBytes, body));
+    }
 
+    /**
+     * Llamada a generateContent; operation y el tamaño del audio separan la latencia de referencia
+     * en AdaptiveLimiter
+     */
+    private String requestGeneration(String operation, long audioBytes, Map<String, Object> body) throws Exception {
         HttpHeaders headers = new HttpHeaders();
         headers.set("x-goog-api-key", geminiApiKey);
         headers.setContentType(MediaType.APPLICATION_JSON);
 
-        String prompt = buildTranscriptionPrompt(language);
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response = dependencyLimiter.call(DependencyLimiter.Dependency.GEMINI_GENERATE, () ->
+                adaptiveLimiter.call(operation, audioBytes, () -> restTemplate.exchange(
+                        GENERATE_URL,
+                        HttpMethod.POST,
+                        request,
+                        String.class
+                ))
+        );
+
+        return response.getBody();
+    }
+
+    /**
+     * Cuerpo de generateContent con el prompt y el archivo de audio subido
+     * (compartido con ReactiveTranscriptionService)
+     */
+    Map<String, Object> buildTranscriptionRequest(String fileUri, String language) {
+        return buildTranscriptionRequest("file_data", fileData(fileUri), language);
+    }
+
+    /**
+     * Cuerpo de generateContent con el prompt y el audio en base64 (inline_data)
+     * (compartido con ReactiveTranscriptionService)
+     */
+    Map<String, Object> buildInlineTranscriptionRequest(byte[] audio, String language) {
+        return buildTranscriptionRequest("inline_data", inlineData(audio), language);
+    }
 
+    private Map<String, Object> buildTranscriptionRequest(String audioPartType, Map<String, String> audioData,
+                                                          String language) {
+        return buildAudioPromptRequest(buildTranscriptionPrompt(language), audioPartType, audioData);
+    }
+
+    private Map<String, Object> buildAudioPromptRequest(String prompt, String audioPartType,
+                                                        Map<String, String> audioData) {
         Map<String, Object> body = new HashMap<>();
         Map<String, Object> content = new HashMap<>();
 
@@ -177,10 +729,7 @@ public class TranscriptionService {
         textPart.put("text", prompt);
 
         Map<String, Object> filePart = new HashMap<>();
-        Map<String, String> fileData = new HashMap<>();
-        fileData.put("mime_type", "audio/mp3");
-        fileData.put("file_uri", fileUri);
-        filePart.put("file_data", fileData);
+        filePart.put(audioPartType, audioData);
 
         parts[0] = textPart;
         parts[1] = filePart;
@@ -188,17 +737,28 @@ public class TranscriptionService {
         content.put("parts", parts);
         body.put("contents", new Object[]{content});
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
+        return body;
+    }
 
-        ResponseEntity<String> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                request,
-                String.class
-        );
+    private static Map<String, String> fileData(String fileUri) {
+        Map<String, String> fileData = new HashMap<>();
+        fileData.put("mime_type", "audio/mp3");
+        fileData.put("file_uri", fileUri);
+        return fileData;
+    }
+
+    private static Map<String, String> inlineData(byte[] audio) {
+        Map<String, String> inlineData = new HashMap<>();
+        inlineData.put("mime_type", "audio/mp3");
+        inlineData.put("data", Base64.getEncoder().encodeToString(audio));
+        return inlineData;
+    }
 
-        // Parsear respuesta
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+    /**
+     * Extrae y limpia el texto de la respuesta de generateContent
+     */
+    String parseTranscription(String responseBody) throws IOException {
+        JsonNode jsonResponse = objectMapper.readTree(responseBody);
         JsonNode candidates = jsonResponse.path("candidates");
 
         if (candidates.isEmpty()) {
@@ -219,6 +779,40 @@ public class TranscriptionService {
         return cleanTranscription(transcription);
     }
 
+    /**
+     * Extrae el resumen (y la transcripcion, si se pidio como JSON) de la respuesta de generateContent
+     */
+    private AudioSummary parseAudioSummary(String responseBody, boolean includeTranscript) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (JsonNode part : objectMapper.readTree(responseBody)
+                .path("candidates").path(0).path("content").path("parts")) {
+            text.append(part.path("text").asText(""));
+        }
+
+        String summary = text.toString().trim();
+        String transcript = null;
+        String language = null;
+
+        if (includeTranscript && !summary.isEmpty()) {
+            JsonNode fields = objectMapper.readTree(summary);
+            summary = fields.path("summary").asText("").trim();
+            transcript = cleanTranscription(fields.path("transcript").asText(""));
+            if (transcript.isEmpty()) {
+                transcript = null;
+            }
+            language = fields.path("language").asText("").trim().toLowerCase();
+            if (language.isEmpty() || language.length() > 10) {
+                language = null;
+            }
+        }
+
+        if (summary.isEmpty()) {
+            throw new TranscriptionException("La IA no pudo generar un resumen del audio");
+        }
+
+        return new AudioSummary(summary, transcript, language);
+    }
+
     private String buildTranscriptionPrompt(String languageCode) {
         String languageName = getLanguageName(languageCode);
 
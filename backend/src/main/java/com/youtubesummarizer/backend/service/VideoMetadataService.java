@@ -0,0 +1,225 @@
+package com.youtubesummarizer.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.youtubesummarizer.backend.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Datos del video (titulo, duracion, subtitulos) leidos sin descargarlo (endpoint /metadata de yt-audio-api)
+ * Se consultan antes de descargar el audio para rechazar al momento los videos que superan la
+ * duracion del plan del usuario. Se guardan en una cache LRU con TTL para que el titulo y la
+ * duracion del resto del pipeline no cuesten otra llamada; los fallos tambien se guardan, con un
+ * TTL corto, para que un /metadata lento o caido no cueste un timeout por cada consulta del resumen.
+ */
+@Service
+public class VideoMetadataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoMetadataService.class);
+
+    @Value("${youtube.audio.api.base-url:http://localhost:5000}")
+    private String audioApiBaseUrl;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Duration failureTtl;
+
+    // LinkedHashMap en orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<String, CacheEntry> entries;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong errors = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+
+    public VideoMetadataService(@Value("${video.metadata.cache.max-entries:5000}") int maxEntries,
+                                @Value("${video.metadata.cache.ttl-minutes:360}") long ttlMinutes,
+                                @Value("${video.metadata.cache.failure-ttl-seconds:60}") long failureTtlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.failureTtl = Duration.ofSeconds(failureTtlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > VideoMetadataService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Datos de un video
+     *
+     * @param videoId ID del video
+     * @param title titulo del video
+     * @param durationSeconds duracion en segundos (null si YouTube no la da, p. ej. en directos)
+     * @param live true si es una emision en directo
+     * @param hasCaptions true si el video tiene subtitulos utilizables
+     */
+    public record VideoMetadata(String videoId, String title, Integer durationSeconds, boolean live,
+                                boolean hasCaptions) {
+    }
+
+    /**
+     * Comprueba que el video cabe en el plan del usuario antes de descargar nada
+     * Si los datos no se pueden obtener no se bloquea la peticion (la descarga dara su propio error)
+     *
+     * @return datos del video, o vacio si no se pudieron obtener
+     * @throws VideoTooLongException si el video supera la duracion maxima del usuario o es un directo
+     */
+    public Optional<VideoMetadata> checkDuration(User user, String videoId, String videoUrl) {
+        Optional<VideoMetadata> metadata = getMetadata(videoId, videoUrl);
+        if (metadata.isEmpty()) {
+            return metadata;
+        }
+
+        VideoMetadata video = metadata.get();
+        int maxSeconds = user.getMaxVideoDuration();
+
+        if (video.live()) {
+            rejected.incrementAndGet();
+            throw new VideoTooLongException("Las emisiones en directo no se pueden resumir. Prueba cuando haya terminado.");
+        }
+
+        if (video.durationSeconds() != null && video.durationSeconds() > maxSeconds) {
+            rejected.incrementAndGet();
+            logger.info("Video {} rechazado para {} ({}): {} s, maximo {} s",
+                    videoId, user.getUsername(), user.getUserType(), video.durationSeconds(), maxSeconds);
+            throw new VideoTooLongException(String.format(
+                    "El video dura %d min y tu plan permite videos de hasta %d min.",
+                    (video.durationSeconds() + 59) / 60, maxSeconds / 60));
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Datos del video, de la cache o de yt-audio-api; peticiones simultaneas del mismo video comparten la llamada
+     *
+     * @return datos del video, o vacio si no se pudieron obtener
+     */
+    public Optional<VideoMetadata> getMetadata(String videoId, String videoUrl) {
+        CacheEntry cached = getCached(videoId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.ofNullable(cached.metadata());
+        }
+
+        misses.incrementAndGet();
+        return singleFlight.execute("metadata:" + videoId, () -> {
+            Optional<VideoMetadata> fetched = fetch(videoId, videoUrl);
+            put(videoId, fetched.orElse(null));
+            return fetched;
+        });
+    }
+
+    /**
+     * Datos del video solo si ya estan en la cache; nunca llama a yt-audio-api
+     */
+    public Optional<VideoMetadata> getCachedMetadata(String videoId) {
+        CacheEntry cached = getCached(videoId);
+        return cached == null ? Optional.empty() : Optional.ofNullable(cached.metadata());
+    }
+
+    private Optional<VideoMetadata> fetch(String videoId, String videoUrl) {
+        try {
+            String body = dependencyLimiter.call(DependencyLimiter.Dependency.AUDIO_API_PROBE, () ->
+                    restTemplate.getForObject(audioApiBaseUrl + "/metadata?url={url}", String.class, videoUrl)
+            );
+
+            JsonNode json = objectMapper.readTree(body);
+            JsonNode duration = json.path("duration");
+            VideoMetadata metadata = new VideoMetadata(
+                    videoId,
+                    json.path("title").asText("Video de YouTube - " + videoId),
+                    duration.isNumber() ? duration.asInt() : null,
+                    json.path("is_live").asBoolean(false),
+                    json.path("has_captions").asBoolean(true)
+            );
+
+            logger.info("Datos de {}: \"{}\", {} s, subtitulos: {}",
+                    videoId, metadata.title(), metadata.durationSeconds(), metadata.hasCaptions());
+            return Optional.of(metadata);
+
+        } catch (PipelineExecutor.PipelineSaturatedException e) {
+            throw e;
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            logger.warn("No se pudieron obtener los datos de {}: {}", videoId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Entrada vigente de la cache, o null si no hay; una entrada sin datos es un fallo reciente
+     */
+    private synchronized CacheEntry getCached(String videoId) {
+        CacheEntry entry = entries.get(videoId);
+        if (entry == null) {
+            return null;
+        }
+        if (Instant.now().isAfter(entry.expiresAt())) {
+            entries.remove(videoId);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(String videoId, VideoMetadata metadata) {
+        Duration entryTtl = metadata == null ? failureTtl : ttl;
+        entries.put(videoId, new CacheEntry(metadata, Instant.now().plus(entryTtl)));
+    }
+
+    /**
+     * Estadisticas de la cache y de los videos rechazados (para monitorizacion)
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMinutes", ttl.toMinutes());
+        stats.put("failureTtlSeconds", failureTtl.toSeconds());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("errors", errors.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    /**
+     * Datos cacheados de un video; metadata es null si la consulta fallo
+     */
+    private record CacheEntry(VideoMetadata metadata, Instant expiresAt) {
+    }
+
+    /**
+     * El video no cabe en el plan del usuario
+     */
+    public static class VideoTooLongException extends RuntimeException {
+        public VideoTooLongException(String message) {
+            super(message);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -12,11 +13,15 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpMethod;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Servicio para interactuar con la API de Python que descarga audio de YouTube
@@ -27,26 +32,36 @@ public class YouTubeAudioService {
 
     private static final Logger logger = LoggerFactory.getLogger(YouTubeAudioService.class);
 
+    // Bytes copiados por llamada al escribir el audio descargado
+    private static final long TRANSFER_CHUNK_BYTES = 256 * 1024;
+
     @Value("${youtube.audio.api.base-url:http://localhost:5000}")
     private String audioApiBaseUrl;
 
-    private final RestTemplate restTemplate;
+    @Autowired
+    private DependencyLimiter dependencyLimiter;
+
+    // Cliente con pool de conexiones compartido (HttpClientConfig)
+    @Autowired
+    private RestTemplate restTemplate;
+
     private final ObjectMapper objectMapper;
 
     public YouTubeAudioService() {
-        this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
     }
 
     public Path downloadAudio(String videoUrl) {
         try {
-            logger.info("Iniciando descarga de audio para: {}", videoUrl);
-            String token = requestToken(videoUrl);
-            logger.info("Token obtenido: {}", token);
-            Path audioFile = downloadAudioFile(token);
-            logger.info("Audio descargado exitosamente: {}", audioFile.getFileName());
-            return audioFile;
-        } catch (AudioDownloadException e) {
+            return dependencyLimiter.call(DependencyLimiter.Dependency.AUDIO_API, () -> {
+                logger.info("Iniciando descarga de audio para: {}", videoUrl);
+                String token = requestToken(videoUrl);
+                logger.info("Token obtenido: {}", token);
+                Path audioFile = downloadAudioFile(token);
+                logger.info("Audio descargado exitosamente: {}", audioFile.getFileName());
+                return audioFile;
+            });
+        } catch (AudioDownloadException | PipelineExecutor.PipelineSaturatedException e) {
             throw e;
         } catch (Exception e) {
             logger.error("Error inesperado: {}", e.getMessage(), e);
@@ -94,7 +109,7 @@ public class YouTubeAudioService {
         }
     }
 
-    private String parseErrorMessage(String errorBody) {
+    String parseErrorMessage(String errorBody) {
         try {
             JsonNode errorNode = objectMapper.readTree(errorBody);
             String detail = errorNode.path("detail").asText("");
@@ -130,6 +145,7 @@ public class YouTubeAudioService {
     }
 
     private Path downloadAudioFile(String token) {
+        Path audioFile = null;
         try {
             String url = audioApiBaseUrl + "/download?token=" + token;
             logger.debug("Descargando audio desde: {}", url);
@@ -139,38 +155,56 @@ public class YouTubeAudioService {
                 Files.createDirectories(tempDir);
             }
 
-            String fileName = "audio_" + System.currentTimeMillis() + ".mp3";
-            Path audioFile = tempDir.resolve(fileName);
-
-            ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.GET, null, byte[].class);
+            // Nombre unico creado de forma atomica: descargas simultaneas nunca comparten archivo
+            audioFile = Files.createTempFile(tempDir, "audio_", ".mp3");
+            Path target = audioFile;
 
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new AudioDownloadException("Error al descargar el archivo");
-            }
+            // El cuerpo se copia del socket al archivo por bloques, sin cargar el MP3 en memoria
+            Long written = restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    throw new AudioDownloadException("Error al descargar el archivo");
+                }
+                return writeToFile(response.getBody(), target);
+            });
 
-            byte[] audioData = response.getBody();
-            if (audioData == null || audioData.length == 0) {
+            if (written == null || written == 0) {
+                cleanupAudioFile(audioFile);
                 throw new AudioDownloadException("El archivo esta vacio");
             }
 
-            try (FileOutputStream fos = new FileOutputStream(audioFile.toFile())) {
-                fos.write(audioData);
-            }
-
-            logger.info("Audio guardado: {} ({} bytes)", audioFile, audioData.length);
+            logger.info("Audio guardado: {} ({} bytes)", audioFile, written);
             return audioFile;
 
         } catch (IOException e) {
             logger.error("Error al guardar archivo: {}", e.getMessage());
+            cleanupAudioFile(audioFile);
             throw new AudioDownloadException("Error al guardar el audio");
         } catch (AudioDownloadException e) {
+            cleanupAudioFile(audioFile);
             throw e;
         } catch (Exception e) {
             logger.error("Error al descargar: {}", e.getMessage());
+            cleanupAudioFile(audioFile);
             throw new AudioDownloadException("Error en la descarga");
         }
     }
 
+    /**
+     * Copia el flujo de entrada a un FileChannel y devuelve los bytes escritos
+     */
+    private long writeToFile(InputStream body, Path audioFile) throws IOException {
+        try (ReadableByteChannel source = Channels.newChannel(body);
+             FileChannel target = FileChannel.open(audioFile,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long total = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, total, TRANSFER_CHUNK_BYTES)) > 0) {
+                total += transferred;
+            }
+            return total;
+        }
+    }
+
     public void cleanupAudioFile(Path audioFile) {
         try {
             if (audioFile != null && Files.exists(audioFile)) {
@@ -0,0 +1,113 @@
+package com.youtubesummarizer.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveLimiterTest {
+
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(limiter, "initialLimit", 4.0);
+        ReflectionTestUtils.setField(limiter, "minLimit", 1.0);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 16.0);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(limiter, "latencyTolerance", 2.0);
+        ReflectionTestUtils.setField(limiter, "failureThreshold", 5);
+        ReflectionTestUtils.setField(limiter, "openSeconds", 3600L);
+        ReflectionTestUtils.setField(limiter, "admissionTimeoutSeconds", 5L);
+    }
+
+    @Test
+    void closingTheCircuitRestoresHalfTheLimitBeforeTheFailureStreak() throws Exception {
+        // 4 -> 2 -> 1 -> 1 -> 1: el quinto 429 abre el circuito
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> limiter.call("summary", this::tooManyRequests))
+                    .isInstanceOf(HttpClientErrorException.class);
+        }
+        assertThat(limiter.getStats()).containsEntry("circuit", "OPEN");
+        assertThatThrownBy(() -> limiter.call("summary", () -> "ok"))
+                .isInstanceOf(AdaptiveLimiter.CircuitOpenException.class);
+
+        // Pasado el tiempo de apertura, la siguiente llamada es la prueba y cierra el circuito
+        ReflectionTestUtils.setField(limiter, "openSeconds", 0L);
+        assertThat(limiter.call("summary", () -> "ok")).isEqualTo("ok");
+
+        // La mitad de 4 (no el minimo), mas el incremento aditivo de la propia prueba (1 / 2)
+        assertThat(limiter.getStats())
+                .containsEntry("circuit", "CLOSED")
+                .containsEntry("limit", 2.5);
+    }
+
+    @Test
+    void reactiveCallWaitsForAPermitAndRunsWhenOneIsReleased() throws Exception {
+        ReflectionTestUtils.setField(limiter, "initialLimit", 1.0);
+        Sinks.One<String> first = Sinks.one();
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        CompletableFuture<String> firstResult = limiter.callReactive("summary", -1, first::asMono).toFuture();
+        CompletableFuture<String> secondResult = limiter.callReactive("summary", -1, () -> {
+            secondStarted.set(true);
+            return Mono.just("second");
+        }).toFuture();
+
+        // Sin hueco la segunda queda en cola sin ocupar ningun hilo
+        assertThat(secondStarted).isFalse();
+        assertThat(limiter.getStats()).containsEntry("inFlight", 1).containsEntry("waiting", 1);
+
+        first.tryEmitValue("first");
+
+        assertThat(firstResult.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(secondResult.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(limiter.getStats()).containsEntry("inFlight", 0).containsEntry("waiting", 0);
+    }
+
+    @Test
+    void cancellingAReactiveCallFreesItsPermitAndItsPlaceInTheQueue() {
+        ReflectionTestUtils.setField(limiter, "initialLimit", 1.0);
+
+        Disposable running = limiter.callReactive("summary", -1, Mono::<String>never).subscribe();
+        Disposable queued = limiter.callReactive("summary", -1, () -> Mono.just("queued")).subscribe();
+        assertThat(limiter.getStats()).containsEntry("inFlight", 1).containsEntry("waiting", 1);
+
+        queued.dispose();
+        running.dispose();
+
+        assertThat(limiter.getStats())
+                .containsEntry("inFlight", 0)
+                .containsEntry("waiting", 0)
+                .containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void reactiveOverloadCountsTowardsTheCircuit() {
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> limiter.callReactive("summary", -1,
+                    () -> Mono.<String>error(HttpClientErrorException.create(
+                            HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null))).block())
+                    .isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(limiter.getStats()).containsEntry("circuit", "OPEN");
+        assertThatThrownBy(() -> limiter.callReactive("summary", -1, () -> Mono.just("ok")).block())
+                .isInstanceOf(AdaptiveLimiter.CircuitOpenException.class);
+    }
+
+    private String tooManyRequests() {
+        throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null);
+    }
+}
@@ -0,0 +1,128 @@
+package com.youtubesummarizer.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioStoreTest {
+
+    private static final int AUDIO_BYTES = 100;
+
+    private final AudioStore store = new AudioStore();
+
+    @TempDir
+    Path tempDir;
+
+    private Path storeDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storeDir = tempDir.resolve("store");
+        ReflectionTestUtils.setField(store, "singleFlight", new SingleFlight());
+        ReflectionTestUtils.setField(store, "storeDir", storeDir);
+        // Caben dos audios; el tercero obliga a expulsar
+        ReflectionTestUtils.setField(store, "maxBytes", 2L * AUDIO_BYTES + 50);
+        store.init();
+    }
+
+    @Test
+    void evictionSkipsLeasedFiles() {
+        AudioStore.Lease leased = store.acquire("a", downloader("a"));
+        store.acquire("b", downloader("b")).close();
+        store.acquire("c", downloader("c")).close();
+
+        // "a" es el menos usado pero sigue en uso: se expulsa "b"
+        assertThat(leased.getPath()).exists();
+        assertThat(storeDir.resolve("b.mp3")).doesNotExist();
+        assertThat(storeDir.resolve("c.mp3")).exists();
+        assertThat(store.getStats()).containsEntry("evictions", 1L).containsEntry("filesInUse", 1L);
+
+        // Al cerrarlo, "a" cuenta como usado recientemente: el siguiente en salir es "c"
+        leased.close();
+        store.acquire("d", downloader("d")).close();
+
+        assertThat(storeDir.resolve("a.mp3")).exists();
+        assertThat(storeDir.resolve("c.mp3")).doesNotExist();
+        assertThat(store.getStats()).containsEntry("evictions", 2L).containsEntry("bytes", 2L * AUDIO_BYTES);
+    }
+
+    @Test
+    void storedAudioIsReusedWithoutDownloadingAgain() {
+        store.acquire("a", downloader("a")).close();
+
+        try (AudioStore.Lease lease = store.acquire("a", () -> {
+            throw new AssertionError("No deberia descargarse otra vez");
+        })) {
+            assertThat(lease.getPath()).isEqualTo(storeDir.resolve("a.mp3"));
+        }
+        assertThat(store.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void freshDownloadIsKeptWhenEveryOtherFileIsLeased() {
+        AudioStore.Lease a = store.acquire("a", downloader("a"));
+        AudioStore.Lease b = store.acquire("b", downloader("b"));
+        AtomicInteger downloads = new AtomicInteger();
+
+        // Nada se puede expulsar: "c" queda por encima del presupuesto, pero con su lease
+        try (AudioStore.Lease c = store.acquire("c", counting(downloads, downloader("c")))) {
+            assertThat(c.getPath()).isEqualTo(storeDir.resolve("c.mp3")).exists();
+        }
+        assertThat(downloads).hasValue(1);
+
+        a.close();
+        b.close();
+        assertThat(store.getStats()).containsEntry("bytes", 2L * AUDIO_BYTES);
+    }
+
+    @Test
+    void audioLargerThanTheStoreIsUsedAsTemporary() {
+        ReflectionTestUtils.setField(store, "maxBytes", AUDIO_BYTES - 1L);
+        AtomicInteger downloads = new AtomicInteger();
+
+        AudioStore.Lease lease = store.acquire("a", counting(downloads, downloader("a")));
+
+        assertThat(downloads).hasValue(1);
+        assertThat(lease.getPath()).exists();
+        assertThat(storeDir.resolve("a.mp3")).doesNotExist();
+        lease.close();
+        assertThat(lease.getPath()).doesNotExist();
+        assertThat(store.getStats()).containsEntry("files", 0).containsEntry("evictions", 0L);
+    }
+
+    @Test
+    void temporaryLeaseDeletesTheFileOnClose() {
+        Path file = downloader("tmp").get();
+
+        store.temporary(file).close();
+
+        assertThat(file).doesNotExist();
+    }
+
+    private Supplier<Path> counting(AtomicInteger downloads, Supplier<Path> downloader) {
+        return () -> {
+            downloads.incrementAndGet();
+            return downloader.get();
+        };
+    }
+
+    private Supplier<Path> downloader(String videoId) {
+        return () -> {
+            try {
+                return Files.write(tempDir.resolve(videoId + "_download.mp3"), new byte[AUDIO_BYTES]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
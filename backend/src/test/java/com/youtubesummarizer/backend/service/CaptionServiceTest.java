@@ -0,0 +1,106 @@
+package com.youtubesummarizer.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * CaptionService contra un yt-audio-api simulado (MockRestServiceServer)
+ */
+class CaptionServiceTest {
+
+    private static final String BASE_URL = "http://yt-audio-api.test";
+    private static final String VIDEO_URL = "https://youtu.be/abc123";
+
+    private final CaptionService captionService = new CaptionService();
+
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        DependencyLimiter dependencyLimiter = new DependencyLimiter(new MockEnvironment());
+        ReflectionTestUtils.setField(dependencyLimiter, "admissionTimeoutSeconds", 5L);
+        dependencyLimiter.init();
+
+        ReflectionTestUtils.setField(captionService, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(captionService, "dependencyLimiter", dependencyLimiter);
+        ReflectionTestUtils.setField(captionService, "audioApiBaseUrl", BASE_URL);
+        ReflectionTestUtils.setField(captionService, "enabled", true);
+        ReflectionTestUtils.setField(captionService, "minChars", 200);
+    }
+
+    @Test
+    void returnsCaptionsLongEnoughToSkipTheAudio() {
+        String text = "hola a todos ".repeat(20).trim();
+        expectCaptions().andRespond(withSuccess(
+                "{\"language\":\"es\",\"automatic\":true,\"text\":\"" + text + "\"}", MediaType.APPLICATION_JSON));
+
+        Optional<CaptionService.Caption> caption = captionService.fetchCaptions(VIDEO_URL, "es");
+
+        server.verify();
+        assertThat(caption).contains(new CaptionService.Caption("es", true, text));
+        assertThat(captionService.getStats()).containsEntry("hits", 1L);
+    }
+
+    @Test
+    void notFoundMeansNoCaptions() {
+        expectCaptions().andRespond(withStatus(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"error\":\"No captions available for this video.\"}"));
+
+        assertThat(captionService.fetchCaptions(VIDEO_URL, "es")).isEmpty();
+        assertThat(captionService.getStats()).containsEntry("misses", 1L).containsEntry("errors", 0L);
+    }
+
+    @Test
+    void captionsShorterThanMinCharsFallBackToTheAudio() {
+        expectCaptions().andRespond(withSuccess(
+                "{\"language\":\"es\",\"automatic\":false,\"text\":\"[Musica]\"}", MediaType.APPLICATION_JSON));
+
+        assertThat(captionService.fetchCaptions(VIDEO_URL, "es")).isEmpty();
+        assertThat(captionService.getStats()).containsEntry("misses", 1L).containsEntry("hits", 0L);
+    }
+
+    @Test
+    void serverErrorFallsBackToTheAudio() {
+        expectCaptions().andRespond(withServerError());
+
+        assertThat(captionService.fetchCaptions(VIDEO_URL, "es")).isEmpty();
+        assertThat(captionService.getStats()).containsEntry("errors", 1L);
+    }
+
+    @Test
+    void disabledCaptionsSkipTheRequest() {
+        ReflectionTestUtils.setField(captionService, "enabled", false);
+
+        assertThat(captionService.fetchCaptions(VIDEO_URL, "es")).isEmpty();
+        server.verify();
+    }
+
+    private ResponseActions expectCaptions() {
+        return server.expect(requestTo(startsWith(BASE_URL + "/captions")))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(queryParam("lang", "es"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.youtubesummarizer.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DependencyLimiterTest {
+
+    private static final DependencyLimiter.Dependency AUDIO_API = DependencyLimiter.Dependency.AUDIO_API;
+
+    private DependencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new DependencyLimiter(new MockEnvironment()
+                .withProperty("dependency.audio-api.max-concurrent", "1"));
+        ReflectionTestUtils.setField(limiter, "admissionTimeoutSeconds", 5L);
+        limiter.init();
+    }
+
+    @Test
+    void reactiveCallWaitsForTheBlockingCallHoldingThePermit() throws Exception {
+        CountDownLatch blockingStarted = new CountDownLatch(1);
+        CountDownLatch finishBlocking = new CountDownLatch(1);
+        AtomicBoolean reactiveStarted = new AtomicBoolean();
+
+        CompletableFuture<String> blocking = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.call(AUDIO_API, () -> {
+                    blockingStarted.countDown();
+                    finishBlocking.await();
+                    return "blocking";
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(blockingStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> reactive = limiter.callReactive(AUDIO_API, () -> {
+            reactiveStarted.set(true);
+            return Mono.just("reactive");
+        }).toFuture();
+
+        // El permiso lo tiene la llamada bloqueante: la reactiva espera en cola sin hilo
+        assertThat(reactiveStarted).isFalse();
+        assertThat(audioApiStats()).containsEntry("active", 1).containsEntry("waiting", 1);
+
+        finishBlocking.countDown();
+
+        assertThat(blocking.get(5, TimeUnit.SECONDS)).isEqualTo("blocking");
+        assertThat(reactive.get(5, TimeUnit.SECONDS)).isEqualTo("reactive");
+        assertThat(audioApiStats()).containsEntry("active", 0).containsEntry("waiting", 0);
+    }
+
+    @Test
+    void cancellingAQueuedReactiveCallReleasesNothingAndLeavesTheQueue() throws Exception {
+        Sinks.One<String> first = Sinks.one();
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        CompletableFuture<String> firstResult = limiter.callReactive(AUDIO_API, first::asMono).toFuture();
+        Disposable second = limiter.callReactive(AUDIO_API, () -> {
+            secondStarted.set(true);
+            return Mono.just("second");
+        }).subscribe();
+        assertThat(audioApiStats()).containsEntry("waiting", 1);
+
+        second.dispose();
+        assertThat(audioApiStats()).containsEntry("active", 1).containsEntry("waiting", 0);
+
+        first.tryEmitValue("first");
+        assertThat(firstResult.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(secondStarted).isFalse();
+        assertThat(audioApiStats()).containsEntry("active", 0);
+    }
+
+    @Test
+    void reactiveCallFailsWhenNoPermitArrivesInTime() {
+        ReflectionTestUtils.setField(limiter, "admissionTimeoutSeconds", 0L);
+        Sinks.One<String> first = Sinks.one();
+        limiter.callReactive(AUDIO_API, first::asMono).subscribe();
+
+        assertThatThrownBy(() -> limiter.callReactive(AUDIO_API, () -> Mono.just("late")).toFuture().get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PipelineExecutor.PipelineSaturatedException.class);
+        assertThat(audioApiStats()).containsEntry("active", 1).containsEntry("waiting", 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> audioApiStats() {
+        return (Map<String, Object>) limiter.getStats().get("audio-api");
+    }
+}
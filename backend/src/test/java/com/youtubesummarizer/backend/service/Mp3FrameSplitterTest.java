@@ -0,0 +1,111 @@
+package com.youtubesummarizer.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Mp3FrameSplitterTest {
+
+    // MPEG1 capa III, 128 kbps, 48 kHz, sin padding: 384 bytes y 24 ms por frame
+    private static final byte[] HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x94, 0x00};
+    private static final int FRAME_LENGTH = 384;
+
+    // Con partes de 1 s caben 41 frames (0,984 s); el 42 ya pasaria de la duracion
+    private static final int FRAMES_PER_SECOND_PART = 41;
+
+    private final Mp3FrameSplitter splitter = new Mp3FrameSplitter();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void cutsAtTheSegmentDurationOnFrameBoundaries() throws IOException {
+        Path audio = write(frames(100));
+
+        List<Path> parts = splitter.split(audio, 1);
+
+        assertThat(parts).hasSize(3);
+        assertThat(Files.size(parts.get(0))).isEqualTo((long) FRAMES_PER_SECOND_PART * FRAME_LENGTH);
+        assertThat(Files.size(parts.get(1))).isEqualTo((long) FRAMES_PER_SECOND_PART * FRAME_LENGTH);
+        assertThat(Files.size(parts.get(2))).isEqualTo((long) (100 - 2 * FRAMES_PER_SECOND_PART) * FRAME_LENGTH);
+        for (Path part : parts) {
+            assertThat(startsWithHeader(part)).isTrue();
+        }
+    }
+
+    @Test
+    void shortAudioIsReturnedWithoutCopying() throws IOException {
+        Path audio = write(frames(10));
+
+        assertThat(splitter.split(audio, 1)).containsExactly(audio);
+    }
+
+    @Test
+    void skipsTheId3v2TagBeforeTheFirstFrame() throws IOException {
+        // Etiqueta de 128 bytes llena de cabeceras falsas: si no se saltara, contarian como audio
+        byte[] tagBody = new byte[128];
+        for (int i = 0; i < tagBody.length; i += HEADER.length) {
+            System.arraycopy(HEADER, 0, tagBody, i, HEADER.length);
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(new byte[]{'I', 'D', '3', 4, 0, 0, 0, 0, 1, 0});
+        content.write(tagBody);
+        content.write(frames(100));
+        Path audio = write(content.toByteArray());
+
+        List<Path> parts = splitter.split(audio, 1);
+
+        assertThat(parts).hasSize(3);
+        assertThat(Files.size(parts.get(0))).isEqualTo((long) FRAMES_PER_SECOND_PART * FRAME_LENGTH);
+        assertThat(Files.size(parts.get(2))).isEqualTo((long) (100 - 2 * FRAMES_PER_SECOND_PART) * FRAME_LENGTH);
+        for (Path part : parts) {
+            assertThat(startsWithHeader(part)).isTrue();
+        }
+    }
+
+    @Test
+    void resyncsAfterJunkWithoutTrustingAFalseHeader() throws IOException {
+        // Basura que empieza por una cabecera valida de 320 kbps (960 bytes) que no va seguida de otro frame
+        byte[] junk = new byte[50];
+        junk[0] = (byte) 0xFF;
+        junk[1] = (byte) 0xFB;
+        junk[2] = (byte) 0xE4;
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(junk);
+        content.write(frames(100));
+        Path audio = write(content.toByteArray());
+
+        List<Path> parts = splitter.split(audio, 1);
+
+        assertThat(parts).hasSize(3);
+        assertThat(Files.size(parts.get(0))).isEqualTo(junk.length + (long) FRAMES_PER_SECOND_PART * FRAME_LENGTH);
+        assertThat(Files.size(parts.get(1))).isEqualTo((long) FRAMES_PER_SECOND_PART * FRAME_LENGTH);
+        assertThat(startsWithHeader(parts.get(1))).isTrue();
+        assertThat(startsWithHeader(parts.get(2))).isTrue();
+    }
+
+    private static byte[] frames(int count) {
+        byte[] data = new byte[count * FRAME_LENGTH];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(HEADER, 0, data, i * FRAME_LENGTH, HEADER.length);
+        }
+        return data;
+    }
+
+    private Path write(byte[] content) throws IOException {
+        return Files.write(tempDir.resolve("audio.mp3"), content);
+    }
+
+    private static boolean startsWithHeader(Path part) throws IOException {
+        byte[] bytes = Files.readAllBytes(part);
+        return bytes.length >= HEADER.length
+                && bytes[0] == HEADER[0] && bytes[1] == HEADER[1] && bytes[2] == HEADER[2];
+    }
+}
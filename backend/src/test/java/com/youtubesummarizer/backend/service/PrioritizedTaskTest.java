@@ -0,0 +1,45 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrioritizedTaskTest {
+
+    @Test
+    void queueOrdersByTierWithinTheAgingWindow() {
+        List<String> ran = new ArrayList<>();
+        PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>(4, PrioritizedTask.order(30));
+
+        queue.add(new PrioritizedTask(User.UserType.FREE, () -> ran.add("free-1")));
+        queue.add(new PrioritizedTask(User.UserType.VIP, () -> ran.add("vip")));
+        queue.add(PrioritizedTask.of(() -> ran.add("free-2")));
+        queue.add(new PrioritizedTask(User.UserType.PREMIUM, () -> ran.add("premium")));
+
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+
+        assertThat(ran).containsExactly("vip", "premium", "free-1", "free-2");
+    }
+
+    @Test
+    void withoutAgingTasksRunInArrivalOrder() {
+        List<String> ran = new ArrayList<>();
+        PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>(2, PrioritizedTask.order(0));
+
+        queue.add(new PrioritizedTask(User.UserType.FREE, () -> ran.add("free")));
+        queue.add(new PrioritizedTask(User.UserType.VIP, () -> ran.add("vip")));
+
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+
+        assertThat(ran).containsExactly("free", "vip");
+    }
+}
@@ -0,0 +1,137 @@
+package com.youtubesummarizer.backend.service;
+
+import com.youtubesummarizer.backend.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityGateTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final List<User.UserType> admitted = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void eachTierCountsAsAgingSecondsOfWait() {
+        long aging = TimeUnit.SECONDS.toNanos(30);
+        long now = 1_000_000_000_000L;
+
+        // Un VIP que llega ahora equivale a un FREE que lleva 60 s esperando
+        assertThat(PriorityGate.rank(User.UserType.VIP, now, aging))
+                .isEqualTo(PriorityGate.rank(User.UserType.FREE, now - 2 * aging, aging));
+        // Un FREE que lleva mas de 2 * aging esperando va antes que un VIP recien llegado
+        assertThat(PriorityGate.rank(User.UserType.FREE, now - 2 * aging - 1, aging))
+                .isLessThan(PriorityGate.rank(User.UserType.VIP, now, aging));
+        assertThat(PriorityGate.rank(User.UserType.PREMIUM, now, aging))
+                .isLessThan(PriorityGate.rank(User.UserType.FREE, now, aging));
+    }
+
+    @Test
+    void higherTierIsAdmittedFirstWithinTheAgingWindow() throws Exception {
+        PriorityGate gate = new PriorityGate(1, 30);
+        assertThat(gate.tryAcquire(User.UserType.FREE, 1, TimeUnit.SECONDS)).isTrue();
+
+        Future<?> free = waitFor(gate, User.UserType.FREE, 1);
+        Future<?> premium = waitFor(gate, User.UserType.PREMIUM, 2);
+        Future<?> vip = waitFor(gate, User.UserType.VIP, 3);
+
+        releaseAll(gate, 3);
+        get(free, premium, vip);
+
+        assertThat(admitted).containsExactly(User.UserType.VIP, User.UserType.PREMIUM, User.UserType.FREE);
+    }
+
+    @Test
+    void withoutAgingTheQueueIsFifo() throws Exception {
+        PriorityGate gate = new PriorityGate(1, 0);
+        assertThat(gate.tryAcquire(User.UserType.FREE, 1, TimeUnit.SECONDS)).isTrue();
+
+        Future<?> free = waitFor(gate, User.UserType.FREE, 1);
+        Future<?> vip = waitFor(gate, User.UserType.VIP, 2);
+
+        releaseAll(gate, 2);
+        get(free, vip);
+
+        assertThat(admitted).containsExactly(User.UserType.FREE, User.UserType.VIP);
+    }
+
+    @Test
+    void timedOutWaiterLeavesTheQueueAndDoesNotBlockTheNext() throws Exception {
+        PriorityGate gate = new PriorityGate(1, 30);
+        assertThat(gate.tryAcquire(User.UserType.FREE, 1, TimeUnit.SECONDS)).isTrue();
+
+        // El VIP queda primero en la cola pero se cansa de esperar
+        Future<Boolean> vip = executor.submit(() -> gate.tryAcquire(User.UserType.VIP, 100, TimeUnit.MILLISECONDS));
+        Future<?> free = waitFor(gate, User.UserType.FREE, 2);
+
+        assertThat(vip.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(gate.getQueueLength()).isEqualTo(1);
+
+        gate.release();
+        get(free);
+
+        assertThat(admitted).containsExactly(User.UserType.FREE);
+        assertThat(gate.getQueueLength()).isZero();
+        assertThat(gate.availablePermits()).isZero();
+    }
+
+    /**
+     * Lanza un hilo que espera permiso y anota su tipo al entrar; vuelve cuando ya esta en la cola
+     */
+    private Future<?> waitFor(PriorityGate gate, User.UserType tier, int expectedQueueLength) throws InterruptedException {
+        Future<?> future = executor.submit(() -> {
+            if (gate.tryAcquire(tier, 5, TimeUnit.SECONDS)) {
+                admitted.add(tier);
+            }
+            return null;
+        });
+        awaitQueueLength(gate, expectedQueueLength);
+        return future;
+    }
+
+    /**
+     * Libera un permiso cada vez que entra alguien, hasta que hayan entrado todos
+     */
+    private void releaseAll(PriorityGate gate, int waiters) throws InterruptedException {
+        for (int i = 0; i < waiters; i++) {
+            int before = admitted.size();
+            gate.release();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (admitted.size() == before) {
+                if (System.nanoTime() > deadline) {
+                    throw new AssertionError("Nadie entro tras liberar un permiso");
+                }
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private static void awaitQueueLength(PriorityGate gate, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gate.getQueueLength() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("La cola no llego a " + expected + " en espera");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void get(Future<?>... futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.youtubesummarizer.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void followersShareTheLeaderResult() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "resultado";
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                return "otro";
+            }));
+            waitUntilCoalesced(1);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("resultado");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("resultado");
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void followersReceiveTheLeaderError() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("fallo del lider");
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<Object> follower = executor.submit(() -> singleFlight.execute("key", () -> "no deberia ejecutarse"));
+            waitUntilCoalesced(1);
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("fallo del lider");
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("fallo del lider");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void followersReturnWhenTheLeaderThrowsAnError() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new AssertionError("error del lider");
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<Object> follower = executor.submit(() -> singleFlight.execute("key", () -> "no deberia ejecutarse"));
+            waitUntilCoalesced(1);
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(AssertionError.class);
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(AssertionError.class)
+                    .hasRootCauseMessage("error del lider");
+            assertThat(singleFlight.getStats()).containsEntry("inFlight", 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void finishedKeyIsRemovedSoTheNextCallRunsAgain() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("key", executions::incrementAndGet);
+        assertThat(singleFlight.getStats()).containsEntry("inFlight", 0);
+
+        singleFlight.execute("key", executions::incrementAndGet);
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void failedKeyIsRemovedSoTheNextCallRunsAgain() {
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("fallo");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.getStats()).containsEntry("inFlight", 0);
+
+        assertThat(singleFlight.execute("key", () -> "ok")).isEqualTo("ok");
+    }
+
+    private void waitUntilCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((long) singleFlight.getStats().get("coalesced") < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("El seguidor no se unio al trabajo en curso");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
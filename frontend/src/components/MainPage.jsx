@@ -35,6 +35,14 @@ const WORD_COUNTS = [
   { value: '400-600', label: '[400-600 palabras]' },
 ];
 
+// Texto mostrado para cada etapa del trabajo de resumen
+const JOB_STAGE_LABELS = {
+  QUEUED: 'En cola...',
+  DOWNLOADING: 'Descargando audio del video...',
+  TRANSCRIBING: 'Transcribiendo audio a texto...',
+  SUMMARIZING: 'Generando resumen con IA...',
+};
+
 // Design System Colors - Hacker Theme
 const colors = {
   bgPrimary: '#0A0F0A',
@@ -398,28 +406,15 @@ export default function MainPage() {
     setLoading(true);
     setLoadingStep('Iniciando...');
 
-    let timer1, timer2;
-
     try {
-      setLoadingStep('Descargando audio del video...');
-      
-      timer1 = setTimeout(() => {
-        setLoadingStep('Transcribiendo audio a texto...');
-      }, 10000);
-
-      timer2 = setTimeout(() => {
-        setLoadingStep('Generando resumen con IA...');
-      }, 40000);
-
       const result = await generateSummary({
         videoUrl: videoURL,
         language: language.value,
         wordCountRange: summaryLength.value,
+      }, (stage) => {
+        setLoadingStep(JOB_STAGE_LABELS[stage] || 'Procesando...');
       });
 
-      clearTimeout(timer1);
-      clearTimeout(timer2);
-
       setCurrentSummary(result);
       setRemainingRequests(result.remainingRequests);
       setShowModal(true);
@@ -427,9 +422,6 @@ export default function MainPage() {
       await loadStats();
       await loadHistory();
     } catch (err) {
-      clearTimeout(timer1);
-      clearTimeout(timer2);
-      
       const rawError = err.response?.data?.error || err.message || 'Error al generar resumen';
       const friendlyError = parseErrorMessage(rawError);
       setError(friendlyError);
@@ -85,15 +85,54 @@ export const checkAuth = async () => {
 // SUMMARY ENDPOINTS
 // ==========================================
 
+// Intervalo entre consultas del estado de un trabajo
+const JOB_POLL_INTERVAL_MS = 2000;
+
+/**
+ * Encola un trabajo de resumen
+ * @param {Object} data - { videoUrl, language, wordCountRange }
+ * @returns {Promise} - { jobId, stage, finished, result, error, createdAt, updatedAt }
+ */
+export const submitSummaryJob = async (data) => {
+  const response = await api.post('/summaries/jobs', data);
+  return response.data;
+};
+
+/**
+ * Obtiene el estado de un trabajo de resumen
+ * @param {string} jobId - ID del trabajo
+ * @returns {Promise} - { jobId, stage, finished, result, error, createdAt, updatedAt }
+ */
+export const getSummaryJob = async (jobId) => {
+  const response = await api.get(`/summaries/jobs/${jobId}`);
+  return response.data;
+};
+
 /**
  * Genera un resumen de un video de YouTube
+ * Encola un trabajo y consulta su estado hasta que termina
  * NOTA: Este proceso puede tardar 2-5 minutos
  * @param {Object} data - { videoUrl, language, wordCountRange }
+ * @param {Function} onStage - (opcional) recibe la etapa actual: QUEUED, DOWNLOADING, TRANSCRIBING, SUMMARIZING
  * @returns {Promise} - { id, videoUrl, videoTitle, summaryText, language, wordCount, videoDurationSeconds, createdAt, remainingRequests }
  */
-export const generateSummary = async (data) => {
-  const response = await api.post('/summaries/generate', data);
-  return response.data;
+export const generateSummary = async (data, onStage) => {
+  let job = await submitSummaryJob(data);
+
+  while (!job.finished) {
+    if (onStage) onStage(job.stage);
+    await new Promise((resolve) => setTimeout(resolve, JOB_POLL_INTERVAL_MS));
+    job = await getSummaryJob(job.jobId);
+  }
+
+  if (job.stage === 'FAILED') {
+    // Mismo formato que los errores HTTP para reutilizar el manejo existente
+    const error = new Error(job.error);
+    error.response = { data: { error: job.error } };
+    throw error;
+  }
+
+  return job.result;
 };
 
 /**
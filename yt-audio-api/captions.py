@@ -0,0 +1,83 @@
+"""
+captions.py
+
+Caption helpers for the /captions and /metadata endpoints of the YouTube Audio Converter API.
+Chooses a caption track from the yt-dlp video information, downloads it and converts it to plain text.
+Kept free of Flask and yt-dlp so it can be tested on its own.
+"""
+
+import json
+import re
+import urllib.request
+from constants import CAPTION_FORMATS, CAPTION_FETCH_TIMEOUT_SECONDS
+
+
+def select_caption_track(info: dict, preferred_language: str):
+    """
+    Chooses the caption track to use: manual subtitles first (preferred language, then
+    the original language, then any language), then automatic captions, which are only
+    used in the original language.
+
+    Returns:
+        tuple (language, automatic, format_entry) or None if there are no captions
+    """
+    original_language = info.get("language") or ""
+
+    manual = info.get("subtitles") or {}
+    manual_names = [name for name in manual if name != "live_chat"]
+    ordered_manual = [name for lang in (preferred_language, original_language) if lang for name in manual_names
+                      if name == lang or name.startswith(lang + "-")]
+
+    # Automatic captions include machine translations to every language; only the original is useful.
+    # yt-dlp marks the untranslated track with "-orig", which also identifies it when the language is unknown
+    automatic = info.get("automatic_captions") or {}
+    if original_language:
+        ordered_automatic = [name for name in (original_language + "-orig", original_language) if name in automatic]
+    else:
+        ordered_automatic = [name for name in automatic if name.endswith("-orig")]
+
+    for tracks, is_automatic, ordered in ((manual, False, ordered_manual + manual_names),
+                                          (automatic, True, ordered_automatic)):
+        for name in ordered:
+            formats = {entry.get("ext"): entry for entry in tracks[name] if entry.get("url")}
+            for ext in CAPTION_FORMATS:
+                if ext in formats:
+                    return name, is_automatic, formats[ext]
+    return None
+
+
+def fetch_caption_text(caption: dict) -> str:
+    """
+    Downloads a caption track chosen by select_caption_track and converts it to plain text.
+    """
+    with urllib.request.urlopen(caption["url"], timeout=CAPTION_FETCH_TIMEOUT_SECONDS) as response:
+        raw = response.read().decode("utf-8")
+    return json3_to_text(raw) if caption.get("ext") == "json3" else vtt_to_text(raw)
+
+
+def json3_to_text(raw: str) -> str:
+    """
+    Converts a json3 caption track into plain text (one line per caption event).
+    """
+    lines = []
+    for event in json.loads(raw).get("events", []):
+        line = "".join(seg.get("utf8", "") for seg in event.get("segs") or []).strip()
+        if line and (not lines or lines[-1] != line):
+            lines.append(line)
+    return "\n".join(lines)
+
+
+def vtt_to_text(raw: str) -> str:
+    """
+    Converts a WebVTT caption track into plain text, dropping headers, timings,
+    inline tags and the repeated lines of rolling automatic captions.
+    """
+    lines = []
+    for line in raw.splitlines():
+        line = line.strip()
+        if not line or line.startswith(("WEBVTT", "Kind:", "Language:", "NOTE")) or "-->" in line or line.isdigit():
+            continue
+        line = re.sub(r"<[^>]+>", "", line).strip()
+        if line and line not in lines[-2:]:
+            lines.append(line)
+    return "\n".join(lines)
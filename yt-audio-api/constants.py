@@ -24,4 +24,8 @@ INTERNAL_SERVER_ERROR = 500 # Fallback for unexpected server errors
 
 # --- Token Settings ---
 EXPIRY_TIME_MINUTES = 5     # Token expiration duration in minutes 
-TOKEN_LENGTH = 20           # Length of generated token (in characters)
\ No newline at end of file
+TOKEN_LENGTH = 20           # Length of generated token (in characters)
+
+# --- Caption Settings ---
+CAPTION_FORMATS = ("json3", "vtt")      # Preferred caption formats, in order
+CAPTION_FETCH_TIMEOUT_SECONDS = 30      # Timeout when downloading a caption track
\ No newline at end of file
@@ -13,6 +13,7 @@ from uuid import uuid4
 from pathlib import Path
 import yt_dlp
 import access_manager
+import captions
 from constants import *
 
 # Initialize the Flask application
@@ -113,6 +114,88 @@ def download_audio():
         return jsonify(error="Error serving file.", detail=str(e)), INTERNAL_SERVER_ERROR
 
 
+@app.route("/metadata", methods=["GET"])
+def get_metadata():
+    """
+    Endpoint to read basic information about a YouTube video without downloading it,
+    so callers can validate the video (e.g. its duration) before requesting the audio.
+
+    Query Parameters:
+        - url (str): Full YouTube video URL.
+
+    Returns:
+        - JSON: {"id": <video_id>, "title": <title>, "duration": <seconds or null>,
+                 "is_live": <bool>, "has_captions": <bool>}
+    """
+    video_url = request.args.get("url")
+    if not video_url:
+        return jsonify(error="Missing 'url' parameter in request."), BAD_REQUEST
+
+    try:
+        info = _extract_info(video_url)
+    except Exception as e:
+        return jsonify(error="Failed to read video information.", detail=str(e)), INTERNAL_SERVER_ERROR
+
+    return jsonify(
+        id=info.get("id"),
+        title=info.get("title"),
+        duration=info.get("duration"),
+        is_live=bool(info.get("is_live")),
+        has_captions=captions.select_caption_track(info, "") is not None
+    )
+
+
+@app.route("/captions", methods=["GET"])
+def get_captions():
+    """
+    Endpoint to fetch an existing caption track of a YouTube video as plain text,
+    without downloading or converting any audio.
+    Manual subtitles are preferred over automatic captions.
+
+    Query Parameters:
+        - url (str): Full YouTube video URL.
+        - lang (str, optional): Preferred caption language (e.g. "es").
+
+    Returns:
+        - JSON: {"language": <code>, "automatic": <bool>, "text": <plain text>}
+        - 404 JSON error if the video has no usable caption track
+    """
+    video_url = request.args.get("url")
+    if not video_url:
+        return jsonify(error="Missing 'url' parameter in request."), BAD_REQUEST
+
+    preferred_language = request.args.get("lang", "")
+
+    try:
+        info = _extract_info(video_url)
+    except Exception as e:
+        return jsonify(error="Failed to read video information.", detail=str(e)), INTERNAL_SERVER_ERROR
+
+    track = captions.select_caption_track(info, preferred_language)
+    if track is None:
+        return jsonify(error="No captions available for this video."), NOT_FOUND
+
+    language, automatic, caption = track
+    try:
+        text = captions.fetch_caption_text(caption)
+    except Exception as e:
+        return jsonify(error="Failed to download captions.", detail=str(e)), INTERNAL_SERVER_ERROR
+
+    if not text:
+        return jsonify(error="No captions available for this video."), NOT_FOUND
+
+    # "-orig" only marks the untranslated automatic track; the language code is the part before it
+    return jsonify(language=language.removesuffix("-orig"), automatic=automatic, text=text)
+
+
+def _extract_info(video_url: str) -> dict:
+    """
+    Reads the video information with yt-dlp without downloading any media.
+    """
+    with yt_dlp.YoutubeDL({'quiet': True, 'no_warnings': True, 'skip_download': True}) as ydl:
+        return ydl.extract_info(video_url, download=False)
+
+
 def _generate_token_response(filename: str):
     """
     Generates a secure download token for a given filename,
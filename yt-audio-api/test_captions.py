@@ -0,0 +1,150 @@
+"""
+test_captions.py
+
+Tests for the caption helpers (captions.py): track selection order, json3/VTT conversion
+and caption download against a local HTTP server that stands in for YouTube.
+
+Run from this directory with: python -m unittest test_captions
+"""
+
+import threading
+import unittest
+from functools import partial
+from http.server import SimpleHTTPRequestHandler, ThreadingHTTPServer
+from pathlib import Path
+
+import captions
+
+FIXTURES = Path(__file__).resolve().parent / "fixtures"
+
+EXPECTED_TEXT = "hola a todos\nbienvenidos al canal\nhoy hablamos de Java"
+
+
+def _track(ext: str, url: str = "http://captions.invalid/track") -> dict:
+    return {"ext": ext, "url": url}
+
+
+class SelectCaptionTrackTest(unittest.TestCase):
+
+    def test_manual_subtitles_win_over_automatic_captions(self):
+        info = {
+            "language": "es",
+            "subtitles": {"en": [_track("vtt")]},
+            "automatic_captions": {"es": [_track("json3")]},
+        }
+
+        self.assertEqual(captions.select_caption_track(info, "es")[:2], ("en", False))
+
+    def test_preferred_language_wins_within_manual_subtitles(self):
+        info = {
+            "language": "en",
+            "subtitles": {"en": [_track("vtt")], "es-419": [_track("vtt")], "fr": [_track("vtt")]},
+        }
+
+        self.assertEqual(captions.select_caption_track(info, "es")[0], "es-419")
+        self.assertEqual(captions.select_caption_track(info, "")[0], "en")
+
+    def test_automatic_captions_only_in_the_original_language(self):
+        # Machine-translated automatic captions are not useful: only the original language track is used
+        info = {
+            "language": "en",
+            "automatic_captions": {"de": [_track("json3")], "en": [_track("vtt")]},
+        }
+
+        self.assertEqual(captions.select_caption_track(info, "es")[:2], ("en", True))
+        self.assertIsNone(captions.select_caption_track({"automatic_captions": {"de": [_track("json3")]}}, "es"))
+
+    def test_automatic_captions_prefer_the_orig_track(self):
+        info = {
+            "language": "en",
+            "automatic_captions": {"en": [_track("json3")], "en-orig": [_track("json3")], "es": [_track("json3")]},
+        }
+
+        self.assertEqual(captions.select_caption_track(info, "es")[:2], ("en-orig", True))
+
+    def test_translated_automatic_captions_are_ignored_when_the_original_language_is_unknown(self):
+        # Without info["language"] the preferred language must not pick a machine translation
+        info = {"automatic_captions": {"es": [_track("json3")], "en-es": [_track("vtt")]}}
+
+        self.assertIsNone(captions.select_caption_track(info, "es"))
+
+        info["automatic_captions"]["en-orig"] = [_track("vtt")]
+        self.assertEqual(captions.select_caption_track(info, "es")[:2], ("en-orig", True))
+
+    def test_json3_is_preferred_and_live_chat_is_ignored(self):
+        info = {
+            "language": "es",
+            "subtitles": {"live_chat": [_track("json")], "es": [_track("vtt"), _track("json3")]},
+        }
+
+        language, automatic, entry = captions.select_caption_track(info, "es")
+        self.assertEqual((language, entry["ext"]), ("es", "json3"))
+
+    def test_tracks_without_url_or_known_format_are_skipped(self):
+        info = {"subtitles": {"es": [{"ext": "json3"}, _track("srv3")]}}
+
+        self.assertIsNone(captions.select_caption_track(info, "es"))
+        self.assertIsNone(captions.select_caption_track({}, "es"))
+
+
+class CaptionConversionTest(unittest.TestCase):
+
+    def test_json3_drops_empty_events_and_consecutive_duplicates(self):
+        raw = (FIXTURES / "captions.json3").read_text(encoding="utf-8")
+
+        self.assertEqual(captions.json3_to_text(raw), EXPECTED_TEXT)
+
+    def test_vtt_drops_headers_timings_tags_and_rolling_repeats(self):
+        raw = (FIXTURES / "captions.vtt").read_text(encoding="utf-8")
+
+        self.assertEqual(captions.vtt_to_text(raw), EXPECTED_TEXT)
+
+    def test_vtt_keeps_a_line_repeated_later_in_the_video(self):
+        raw = "WEBVTT\n\n1\n00:00.000 --> 00:01.000\nsi\n\n2\n00:01.000 --> 00:02.000\nno\n\n" \
+              "3\n00:02.000 --> 00:03.000\nquizas\n\n4\n00:03.000 --> 00:04.000\nsi\n"
+
+        self.assertEqual(captions.vtt_to_text(raw), "si\nno\nquizas\nsi")
+
+
+class FetchCaptionTextTest(unittest.TestCase):
+    """
+    Downloads the fixtures from a local HTTP server, as the API does with YouTube's caption URLs.
+    """
+
+    @classmethod
+    def setUpClass(cls):
+        handler = partial(_QuietHandler, directory=str(FIXTURES))
+        cls.server = ThreadingHTTPServer(("127.0.0.1", 0), handler)
+        threading.Thread(target=cls.server.serve_forever, daemon=True).start()
+        cls.base_url = "http://127.0.0.1:%d" % cls.server.server_address[1]
+
+    @classmethod
+    def tearDownClass(cls):
+        cls.server.shutdown()
+        cls.server.server_close()
+
+    def test_fetches_and_converts_json3(self):
+        entry = _track("json3", self.base_url + "/captions.json3")
+
+        self.assertEqual(captions.fetch_caption_text(entry), EXPECTED_TEXT)
+
+    def test_fetches_and_converts_vtt(self):
+        entry = _track("vtt", self.base_url + "/captions.vtt")
+
+        self.assertEqual(captions.fetch_caption_text(entry), EXPECTED_TEXT)
+
+    def test_missing_track_raises(self):
+        entry = _track("vtt", self.base_url + "/missing.vtt")
+
+        with self.assertRaises(Exception):
+            captions.fetch_caption_text(entry)
+
+
+class _QuietHandler(SimpleHTTPRequestHandler):
+
+    def log_message(self, format, *args):
+        pass
+
+
+if __name__ == "__main__":
+    unittest.main()